@@ -0,0 +1,97 @@
+package benchmark;
+
+import approximation.Approximation;
+import approximation.RootResult;
+import function.Function;
+import function.terms.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ *  Benchmarks for every method of approximation.Approximation on a polynomial, x^3 - 2x - 5,
+ *  and a transcendental function, cos(x) - x, each with a single root in [0.5, 3].
+ *  Householder's method is measured with degree 3; the Bound variants of Newton's, Halley's and Householder's
+ *  methods show the trade of fewer iterations against more derivatives per iteration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApproximationBenchmark {
+
+    @Param({"polynomial", "transcendental"})
+    public String function;
+
+    private Function f;
+    private double lo;
+    private double hi;
+
+    @Setup
+    public void setup() {
+        f = new Function();
+        if (function.equals("polynomial")) {
+            f.addTerm(new Power(1, 3));
+            f.addTerm(new Power(-2, 1));
+            f.addTerm(new Power(-5, 0));
+            lo = 2;
+            hi = 3;
+        } else {
+            f.addTerm(new Cos(1, 1));
+            f.addTerm(new Power(-1, 1));
+            lo = 0.5;
+            hi = 1;
+        }
+    }
+
+    @Benchmark
+    public double newtonMethod() {
+        return Approximation.newtonMethod(f, hi, 20);
+    }
+
+    @Benchmark
+    public double newtonMethodBound() {
+        return Approximation.newtonMethodBound(f, hi, 12);
+    }
+
+    @Benchmark
+    public double halleyMethod() {
+        return Approximation.halleyMethod(f, hi, 20);
+    }
+
+    @Benchmark
+    public double halleyMethodBound() {
+        return Approximation.halleyMethodBound(f, hi, 12);
+    }
+
+    @Benchmark
+    public double householderMethod() {
+        return Approximation.householderMethod(f, hi, 3, 20);
+    }
+
+    @Benchmark
+    public double householderMethodBound() {
+        return Approximation.householderMethodBound(f, hi, 3, 12);
+    }
+
+    @Benchmark
+    public double bisectMethod() {
+        return Approximation.bisectMethod(f, lo, hi, 40);
+    }
+
+    @Benchmark
+    public double bisectMethodBound() {
+        return Approximation.bisectMethodBound(f, lo, hi, 12);
+    }
+
+    @Benchmark
+    public RootResult brentMethod() {
+        return Approximation.brentMethod(f, lo, hi, 1e-12, 100);
+    }
+
+    @Benchmark
+    public double[] findAllRoots() {
+        return Approximation.findAllRoots(f, 0.5, 3, 1e-12);
+    }
+}
@@ -0,0 +1,68 @@
+package benchmark;
+
+import approximation.Approximation;
+import approximation.BatchRootSolver;
+import function.Function;
+import function.terms.Power;
+import function.terms.Sin;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ *  Benchmarks for solving a batch of problems of the same shape, a*x^2 + b*x + c*sin(x) - d:
+ *  BatchRootSolver against building a Function and calling Approximation.newtonMethodBound() per problem.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchRootSolverBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int problems;
+
+    private BatchRootSolver solver;
+    private double[][] a;
+    private double[] starts;
+    private double[] roots;
+    private byte[] status;
+
+    @Setup
+    public void setup() {
+        solver = new BatchRootSolver(new Power(1, 2), new Power(1, 1), new Sin(1, 1), new Power(1, 0));
+        a = new double[4][problems];
+        starts = new double[problems];
+        roots = new double[problems];
+        status = new byte[problems];
+        Random random = new Random(42);
+        for (int i = 0; i < problems; i++) {
+            a[0][i] = 1 + random.nextDouble();
+            a[1][i] = random.nextDouble() - 0.5;
+            a[2][i] = random.nextDouble();
+            a[3][i] = -1 - 4 * random.nextDouble();
+            starts[i] = 4;
+        }
+    }
+
+    @Benchmark
+    public double[] batch() {
+        solver.newtonMethod(a, null, starts, roots, status, 1e-12, 50);
+        return roots;
+    }
+
+    @Benchmark
+    public double[] perProblem() {
+        for (int i = 0; i < problems; i++) {
+            Function f = new Function();
+            f.addTerm(new Power(a[0][i], 2));
+            f.addTerm(new Power(a[1][i], 1));
+            f.addTerm(new Sin(a[2][i], 1));
+            f.addTerm(new Power(a[3][i], 0));
+            roots[i] = Approximation.newtonMethodBound(f, starts[i], 12);
+        }
+        return roots;
+    }
+}
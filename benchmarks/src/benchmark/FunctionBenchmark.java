@@ -0,0 +1,93 @@
+package benchmark;
+
+import function.CompiledFunction;
+import function.Function;
+import function.FunctionGenerator;
+import function.terms.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleUnaryOperator;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ *  Benchmarks for function.Function: evaluation by walking the term list, by the compiled form,
+ *  and by the generated class, and construction of derivatives, across numbers of terms.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FunctionBenchmark {
+
+    @Param({"1", "4", "16", "64"})
+    public int terms;
+
+    private Function f;
+    private Function frozen;
+    private CompiledFunction compiled;
+    private DoubleUnaryOperator generated;
+    private double x;
+
+    /**
+     * Returns a function with the given number of terms, cycling through the five kinds of term.
+     * Each term has its own b, so that no two terms are merged (see Function.addTerm()) and the function has
+     * exactly the given number of terms.
+     */
+    static Function mixedFunction(int terms) {
+        Function f = new Function();
+        for (int i = 0; i < terms; i++) {
+            double a = 1 + i * 0.25;
+            double b = 0.5 + i * 0.125;
+            switch (i % 5) {
+                case 0: f.addTerm(new Power(a, b + 1)); break;
+                case 1: f.addTerm(new Exp(a, b * 0.1)); break;
+                case 2: f.addTerm(new Log(a, b)); break;
+                case 3: f.addTerm(new Sin(a, b)); break;
+                default: f.addTerm(new Cos(a, b)); break;
+            }
+        }
+        return f;
+    }
+
+    @Setup
+    public void setup() {
+        f = mixedFunction(terms);
+        frozen = f.freeze();
+        compiled = f.compile();
+        generated = FunctionGenerator.generate(f);
+        x = 1.2345;
+    }
+
+    @Benchmark
+    public double evaluate() {
+        return f.evaluate(x);
+    }
+
+    @Benchmark
+    public double evaluateCompiled() {
+        return compiled.evaluate(x);
+    }
+
+    @Benchmark
+    public double evaluateGenerated() {
+        return generated.applyAsDouble(x);
+    }
+
+    @Benchmark
+    public CompiledFunction compile() {
+        return f.compile();
+    }
+
+    /** A mutable function caches no derivatives, so this measures building one. */
+    @Benchmark
+    public Function derivative() {
+        return f.derivative(1);
+    }
+
+    /** A frozen function caches its derivatives, so this measures a cache hit. */
+    @Benchmark
+    public Function derivativeCached() {
+        return frozen.derivative(1);
+    }
+}
@@ -0,0 +1,53 @@
+package benchmark;
+
+import interpolation.InterpolatingPolynomial;
+import interpolation.LagrangePolynomial;
+import interpolation.NewtonPolynomial;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ *  Benchmarks for the interpolation package: coefficient computation and evaluation of
+ *  Lagrange (standard and barycentric) and Newton polynomials across numbers of Chebyshev nodes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterpolationBenchmark {
+
+    @Param({"8", "32", "128"})
+    public int nodes;
+
+    @Param({"lagrange", "barycentric", "newton"})
+    public String form;
+
+    private InterpolatingPolynomial p;
+    private double x;
+
+    @Setup
+    public void setup() {
+        if (form.equals("newton"))
+            p = new NewtonPolynomial(nodes);
+        else
+            p = new LagrangePolynomial(nodes, form.equals("barycentric"));
+        p.chebyshevNodes();
+        for (int i = 0; i < nodes; i++)
+            p.nodes[1][i] = Math.exp(p.nodes[0][i]);
+        p.computeCoefficients();
+        x = 0.123;
+    }
+
+    @Benchmark
+    public double[] computeCoefficients() {
+        p.computeCoefficients();
+        return p.coefficients;
+    }
+
+    @Benchmark
+    public double evaluate() {
+        return p.evaluate(x);
+    }
+}
@@ -0,0 +1,59 @@
+package benchmark;
+
+import interpolation.NewtonPolynomial;
+import interpolation.StreamingNewtonInterpolator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ *  Benchmarks for predicting the next value of a stream from a window of its last samples:
+ *  StreamingNewtonInterpolator against rebuilding a NewtonPolynomial for every sample.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamingInterpolationBenchmark {
+
+    @Param({"4", "8", "32"})
+    public int window;
+
+    private StreamingNewtonInterpolator stream;
+    private double[][] nodes;
+    private double t;
+
+    @Setup
+    public void setup() {
+        stream = new StreamingNewtonInterpolator(window);
+        nodes = new double[2][window];
+        t = 0;
+        for (int i = 0; i < window; i++)
+            sample();
+    }
+
+    private double sample() {
+        t += 1e-3;
+        stream.add(t, Math.sin(t));
+        return t;
+    }
+
+    @Benchmark
+    public double streaming() {
+        double x = sample();
+        return stream.evaluate(x + 1e-3);
+    }
+
+    @Benchmark
+    public double rebuild() {
+        double x = sample();
+        for (int j = 0; j < window; j++) {
+            nodes[0][j] = stream.getX(j);
+            nodes[1][j] = Math.sin(nodes[0][j]);
+        }
+        NewtonPolynomial p = new NewtonPolynomial(nodes);
+        p.computeCoefficients();
+        return p.evaluate(x + 1e-3);
+    }
+}
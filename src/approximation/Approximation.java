@@ -1,6 +1,11 @@
 package approximation;
 
+import function.CompiledFunction;
 import function.Function;
+import function.Interval;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  *  Class Approximation:
@@ -15,11 +20,40 @@ import function.Function;
  *  or not at all. In these conditions, the bisection method serves as an alternative.
  *  The bisection method converges linearly to a root in the given interval if one exists.
  *
+ *  halleyMethod() and householderMethod() generalize Newton's method to use higher derivatives, which are
+ *  evaluated together in one pass (see Function.evaluateDerivatives()). Halley's method converges cubically,
+ *  and Householder's method of degree d converges with order d + 1, so they take fewer iterations when
+ *  evaluating f is expensive.
+ *
+ *  brentMethod() combines the bisection method with the secant method and inverse quadratic interpolation.
+ *  It is as reliable as the bisection method, but usually converges superlinearly, and reports how it converged.
+ *
+ *  findAllRoots() searches a whole interval for every root, by dividing it into cells that are scanned in parallel
+ *  for sign changes, and refining each sign change with the bisection method. Runs of cells where the enclosure
+ *  of f (see Function.evaluate(Interval)) excludes zero hold no root and are skipped without evaluating f.
+ *
+ *  Every real and complex root of a polynomial can be found at once with PolynomialRoots.aberthMethod().
+ *  Large batches of problems of the same shape are solved in lockstep by BatchRootSolver.
+ *
+ *  When metrics are enabled, every method records its iterations, evaluations, failures and latency in SolverMetrics.
+ *
  * @author Aaron Anderson
  *         9/18/18
  *
  */
 public final class Approximation {
+    /** Default number of cells an interval is divided into by findAllRoots() */
+    public static final int ROOT_SEARCH_CELLS = 1 << 12;
+    /** Number of cells scanned by each parallel task in findAllRoots() */
+    private static final int ROOT_SEARCH_LEAF = 1 << 6;
+    /** Number of times a cell that may hide a pair of roots is halved in findAllRoots() */
+    private static final int ROOT_SEARCH_DEPTH = 8;
+    /** Smallest number of cells whose enclosure is computed to skip them in findAllRoots() */
+    private static final int ROOT_SEARCH_PRUNE = 4;
+    /** Number of times bisectMethod() halves its interval looking for a sign change */
+    private static final int BRACKET_DEPTH = 24;
+    /** Maximum number of evaluations of f by bisectMethod() looking for a sign change */
+    private static final int BRACKET_EVALUATIONS = 1 << 10;
 
     /**
      *  Implements Newton's method by iterating
@@ -27,6 +61,7 @@ public final class Approximation {
      *  for a given number n times.
      *  This method converges converges quadratically for
      *  most initial x_0 = k unless f'(k) = 0.
+     *  f(x_n) and f'(x_n) are evaluated together in one pass, see CompiledFunction.evaluateWithDerivative().
      *
      * @param f     Function to approximate
      * @param k     Initial approximation
@@ -34,8 +69,17 @@ public final class Approximation {
      * @return
      */
     public static double newtonMethod(Function f, double k, int n) {
-        for(int i = 0; i < n; i++)
-            k = k - ( f.evaluate(k) / f.derivative(1).evaluate(k) );
+        long start = SolverMetrics.ENABLED ? System.nanoTime() : 0;
+        CompiledFunction g = f.compile();
+        double[] fx = new double[2];
+        for(int i = 0; i < n; i++) {
+            g.evaluateWithDerivative(k, fx);
+            k = k - ( fx[0] / fx[1] );
+        }
+        if (SolverMetrics.ENABLED) {
+            SolverMetrics.recordIterations(SolverMetrics.Method.NEWTON, n);
+            SolverMetrics.recordSolve(SolverMetrics.Method.NEWTON, n, n, start, Double.isFinite(k));
+        }
         return k;
     }
 
@@ -45,6 +89,7 @@ public final class Approximation {
      *  Note that this relies on a special property that approximates the error bound but is not guaranteed.
      *  This method may be unstable for some functions, so it is recommended that it is checked with 'newtonMethod'
      *  or 'bisectMethod'.
+     *  f(x_n) and f'(x_n) are evaluated together in one pass, see CompiledFunction.evaluateWithDerivative().
      *
      * @param f     Function to approximate
      * @param k     Initial approximation
@@ -52,14 +97,145 @@ public final class Approximation {
      * @return
      */
     public static double newtonMethodBound(Function f, double k, int order) {
+        long start = SolverMetrics.ENABLED ? System.nanoTime() : 0;
+        CompiledFunction g = f.compile();
+        double[] fx = new double[2];
+        double temp;
+        int iterations = 0;
+        do {
+            temp = k;
+            g.evaluateWithDerivative(k, fx);
+            k = k - (fx[0] / fx[1]);
+            iterations++;
+            if (SolverMetrics.ENABLED)
+                SolverMetrics.recordIteration(SolverMetrics.Method.NEWTON);
+        } while (Math.abs(k - temp) > Math.pow(10, -order));
+        if (SolverMetrics.ENABLED)
+            SolverMetrics.recordSolve(SolverMetrics.Method.NEWTON, iterations, iterations, start, Double.isFinite(k));
+        return k;
+    }
+
+
+    /**
+     *  Implements Halley's method by iterating
+     *      x_(n+1) = x_n - (2 f(x_n) f'(x_n)) / (2 f'(x_n)^2 - f(x_n) f''(x_n))
+     *  for a given number n times.
+     *  This method converges cubically for most initial x_0 = k near a simple root.
+     *  It is Householder's method of degree 2, see householderMethod().
+     *
+     * @param f     Function to approximate
+     * @param k     Initial approximation
+     * @param n     Number of iterations to perform
+     * @return
+     */
+    public static double halleyMethod(Function f, double k, int n) {
+        return householderMethod(f, k, 2, n);
+    }
+
+    /**
+     *  This method implements Halley's method to a specified degree of precision, 10^(-order).
+     *  As with 'newtonMethodBound', the error bound is approximated by the size of the last step.
+     *
+     * @param f     Function to approximate
+     * @param k     Initial approximation
+     * @param order Desired order of precision
+     * @return
+     */
+    public static double halleyMethodBound(Function f, double k, int order) {
+        return householderMethodBound(f, k, 2, order);
+    }
+
+    /**
+     *  Implements Householder's method of degree d by iterating
+     *      x_(n+1) = x_n + d * (1/f)^(d-1)(x_n) / (1/f)^(d)(x_n)
+     *  for a given number n times.
+     *  Degree 1 is Newton's method and degree 2 is Halley's method.
+     *  This method converges with order d + 1 for most initial x_0 = k near a simple root.
+     *
+     *  Each step evaluates f, f', ..., f^(d) together in one pass, and finds the derivatives of 1/f
+     *  from the reciprocal of the Taylor series of f (see householderStep()).
+     *
+     * @param f     Function to approximate
+     * @param k     Initial approximation
+     * @param d     Degree of the method, at least 1
+     * @param n     Number of iterations to perform
+     * @return
+     */
+    public static double householderMethod(Function f, double k, int d, int n) {
+        if (d < 1)
+            throw new IllegalArgumentException("Degree must be at least 1");
+        long start = SolverMetrics.ENABLED ? System.nanoTime() : 0;
+        CompiledFunction g = f.compile();
+        double[] taylor = new double[d + 1];
+        double[] reciprocal = new double[d + 1];
+        for (int i = 0; i < n; i++)
+            k = householderStep(g, k, taylor, reciprocal);
+        if (SolverMetrics.ENABLED) {
+            SolverMetrics.recordIterations(SolverMetrics.Method.HOUSEHOLDER, n);
+            SolverMetrics.recordSolve(SolverMetrics.Method.HOUSEHOLDER, n, n, start, Double.isFinite(k));
+        }
+        return k;
+    }
+
+    /**
+     *  This method implements Householder's method of degree d to a specified degree of precision, 10^(-order).
+     *  As with 'newtonMethodBound', the error bound is approximated by the size of the last step.
+     *
+     * @param f     Function to approximate
+     * @param k     Initial approximation
+     * @param d     Degree of the method, at least 1
+     * @param order Desired order of precision
+     * @return
+     */
+    public static double householderMethodBound(Function f, double k, int d, int order) {
+        if (d < 1)
+            throw new IllegalArgumentException("Degree must be at least 1");
+        long start = SolverMetrics.ENABLED ? System.nanoTime() : 0;
+        CompiledFunction g = f.compile();
+        double[] taylor = new double[d + 1];
+        double[] reciprocal = new double[d + 1];
         double temp;
+        int iterations = 0;
         do {
             temp = k;
-            k = k - (f.evaluate(k) / f.derivative(1).evaluate(k));
+            k = householderStep(g, k, taylor, reciprocal);
+            iterations++;
+            if (SolverMetrics.ENABLED)
+                SolverMetrics.recordIteration(SolverMetrics.Method.HOUSEHOLDER);
         } while (Math.abs(k - temp) > Math.pow(10, -order));
+        if (SolverMetrics.ENABLED)
+            SolverMetrics.recordSolve(SolverMetrics.Method.HOUSEHOLDER, iterations, iterations, start, Double.isFinite(k));
         return k;
     }
 
+    /**
+     *  Performs one step of Householder's method of degree taylor.length - 1 from x.
+     *
+     *  With the Taylor coefficients t_j = f^(j)(x) / j! of f, the Taylor coefficients of 1/f are
+     *      r_0 = 1 / t_0,   r_m = -r_0 * SUM(t_j * r_(m-j)) for j = 1 ... m
+     *  and the step d * (1/f)^(d-1) / (1/f)^(d) simplifies to r_(d-1) / r_d.
+     *
+     * @return  Next approximation, or x itself if f(x) = 0
+     */
+    private static double householderStep(CompiledFunction f, double x, double[] taylor, double[] reciprocal) {
+        int d = taylor.length - 1;
+        f.evaluateDerivatives(x, taylor);
+        if (taylor[0] == 0)
+            return x;
+        double factorial = 1;
+        for (int j = 1; j <= d; j++) {
+            factorial *= j;
+            taylor[j] /= factorial;
+        }
+        reciprocal[0] = 1 / taylor[0];
+        for (int m = 1; m <= d; m++) {
+            double sum = 0;
+            for (int j = 1; j <= m; j++)
+                sum += taylor[j] * reciprocal[m - j];
+            reciprocal[m] = -reciprocal[0] * sum;
+        }
+        return x + reciprocal[d - 1] / reciprocal[d];
+    }
 
     /**
      *  This method implements the bisection method for solving roots.
@@ -72,16 +248,26 @@ public final class Approximation {
      *  because the size of the interval is halved each iteration, the error bound
      *  for this method is (p1 = p0)/2^(n).
      *
+     *  If f(p0) and f(p1) have the same sign, the interval may still hold an even number of roots, so a bracket
+     *  is searched for first, see bracket().
      *
      * @param f     Function to approximate
      * @param p0    Lower bound of interval
      * @param p1    Upper bound of interval
      * @param n     Number of iterations to perform
-     * @return
+     * @return  Approximate root, or -1 if no sign change was found
      */
     public static double bisectMethod(Function f,  double p0, double p1, int n) {
-        if ((f.evaluate(p1) * f.evaluate(p0)) > 0)
+        long start = SolverMetrics.ENABLED ? System.nanoTime() : 0;
+        long[] evaluations = {2};
+        double[] bracket = bracket(f, p0, p1, evaluations);
+        if (bracket == null) {
+            if (SolverMetrics.ENABLED)
+                SolverMetrics.recordSolve(SolverMetrics.Method.BISECTION, 0, evaluations[0], start, false);
             return -1;
+        }
+        p0 = bracket[0];
+        p1 = bracket[1];
 
         double range = p1 - p0;
         double mid = p0 + (range / 2);
@@ -95,6 +281,10 @@ public final class Approximation {
             else
                 p1 = mid;
         }
+        if (SolverMetrics.ENABLED) {
+            SolverMetrics.recordIterations(SolverMetrics.Method.BISECTION, n);
+            SolverMetrics.recordSolve(SolverMetrics.Method.BISECTION, n, evaluations[0] + 2L * n, start, true);
+        }
         return mid;
     }
 
@@ -108,29 +298,391 @@ public final class Approximation {
      *  This form of the method iterates until the size of the interval is less than
      *  10^(-order), which serves as the error bound.
      *
+     *  If f(p0) and f(p1) have the same sign, the interval may still hold an even number of roots, so a bracket
+     *  is searched for first, see bracket().
      *
      * @param f     Function to approximate
      * @param p0    Lower bound of interval
      * @param p1    Upper bound of interval
      * @param order Desired order of precision
-     * @return
+     * @return  Approximate root, or -1 if no sign change was found
      */
     public static double bisectMethodBound(Function f,  double p0, double p1, int order) {
-        if ((f.evaluate(p1) * f.evaluate(p0)) > 0)
+        long start = SolverMetrics.ENABLED ? System.nanoTime() : 0;
+        long[] evaluations = {2};
+        double[] bracket = bracket(f, p0, p1, evaluations);
+        if (bracket == null) {
+            if (SolverMetrics.ENABLED)
+                SolverMetrics.recordSolve(SolverMetrics.Method.BISECTION, 0, evaluations[0], start, false);
             return -1;
+        }
+        long bracketed = evaluations[0];
+        double root = bisect(f.compile(), bracket[0], bracket[1], bracket[2], Math.pow(10, -order), evaluations);
+        if (SolverMetrics.ENABLED) {
+            // bisect() evaluates f once per iteration
+            long iterations = evaluations[0] - bracketed;
+            SolverMetrics.recordIterations(SolverMetrics.Method.BISECTION, iterations);
+            SolverMetrics.recordSolve(SolverMetrics.Method.BISECTION, iterations, evaluations[0], start, true);
+        }
+        return root;
+    }
 
-        double range = p1 - p0;
-        double mid = p0 + (range / 2);
-
-        while ((range) > (Math.pow(10, -order))) {
-            range = p1 - p0;
-            mid = p0 + (range / 2);
-
-            if (f.evaluate(mid) * f.evaluate(p0) > 0)
+    /**
+     *  Implements the bisection method to a given tolerance on a bracket [p0, p1] where f(p0) has value fp0,
+     *  for bisectMethodBound() and findAllRoots().
+     *  Each iteration evaluates f once, and stops early if f is exactly zero at the midpoint or the bracket
+     *  can no longer be halved in double precision.
+     *
+     * @param evaluations   evaluations[0] is increased by the number of evaluations of f
+     * @return  Midpoint of the final bracket, or a point where f is zero
+     */
+    private static double bisect(CompiledFunction f, double p0, double p1, double fp0, double tolerance, long[] evaluations) {
+        while (p1 - p0 > tolerance) {
+            double mid = p0 + (p1 - p0) / 2;
+            if (mid <= p0 || mid >= p1)
+                break;
+            double fmid = f.evaluate(mid);
+            evaluations[0]++;
+            if (fmid == 0)
+                return mid;
+            if (fmid * fp0 > 0) {
                 p0 = mid;
-            else
+                fp0 = fmid;
+            } else {
                 p1 = mid;
+            }
+        }
+        return p0 + (p1 - p0) / 2;
+    }
+
+    /**
+     *  Returns an interval [p0, p1] on which f changes sign or is zero at an end, for the bisection methods.
+     *
+     *  If f(p0) and f(p1) have the same sign, the interval is halved depth-first, at most BRACKET_DEPTH times
+     *  and with at most BRACKET_EVALUATIONS evaluations of f, looking for a sign change; halves whose
+     *  enclosure (see Function.evaluate(Interval)) excludes zero hold no root and are not searched.
+     *  The leftmost sign change found is returned.
+     *
+     * @param evaluations   evaluations[0] is increased by the number of evaluations of f beyond the first two
+     * @return  {p0, p1, f(p0)}, or null if no sign change was found
+     */
+    private static double[] bracket(Function f, double p0, double p1, long[] evaluations) {
+        double f0 = f.evaluate(p0);
+        double f1 = f.evaluate(p1);
+        if (!(f0 * f1 > 0))
+            return new double[] {p0, p1, f0};
+        long limit = evaluations[0] + BRACKET_EVALUATIONS;
+        return bracket(f, p0, p1, f0, f1, BRACKET_DEPTH, evaluations, limit);
+    }
+
+    /**
+     *  Searches [p0, p1], where f has the same sign f0 and f1 at both ends, for a sign change, see bracket().
+     */
+    private static double[] bracket(Function f, double p0, double p1, double f0, double f1, int depth,
+                                    long[] evaluations, long limit) {
+        if (depth == 0 || evaluations[0] >= limit
+                || !f.evaluate(new Interval(Math.min(p0, p1), Math.max(p0, p1))).containsZero())
+            return null;
+        double mid = p0 + (p1 - p0) / 2;
+        double fm = f.evaluate(mid);
+        evaluations[0]++;
+        if (fm == 0 || fm * f0 < 0)
+            return new double[] {p0, mid, f0};
+        double[] left = bracket(f, p0, mid, f0, fm, depth - 1, evaluations, limit);
+        if (left != null)
+            return left;
+        return bracket(f, mid, p1, fm, f1, depth - 1, evaluations, limit);
+    }
+
+    /**
+     *  This method implements Brent's method for solving roots.
+     *  Like the bisection method it keeps a bracket [p0, p1] around a root and is guaranteed to converge,
+     *  but each step tries inverse quadratic interpolation or the secant method first, and falls back to bisection
+     *  only when the interpolated point would leave the bracket or shrink it too slowly.
+     *  It therefore usually needs several times fewer evaluations of f than bisectMethodBound().
+     *
+     *  Takes a Function f, and iterates until the bracket is smaller than tolerance (plus a relative term
+     *  to allow for rounding), or until maxIterations iterations have been performed.
+     *
+     * @param f             Function to approximate
+     * @param p0            Lower bound of interval
+     * @param p1            Upper bound of interval
+     * @param tolerance     Desired accuracy
+     * @param maxIterations Maximum number of iterations to perform
+     * @return  RootResult holding the root, iteration and evaluation counts, and status.
+     *          If f(p0) and f(p1) have the same sign the status is NO_BRACKET and the root is NaN.
+     */
+    public static RootResult brentMethod(Function f, double p0, double p1, double tolerance, int maxIterations) {
+        long start = SolverMetrics.ENABLED ? System.nanoTime() : 0;
+        RootResult result = brent(f, p0, p1, tolerance, maxIterations);
+        if (SolverMetrics.ENABLED) {
+            SolverMetrics.recordIterations(SolverMetrics.Method.BRENT, result.getIterations());
+            SolverMetrics.recordSolve(SolverMetrics.Method.BRENT, result.getIterations(), result.getEvaluations(),
+                                      start, result.isConverged());
+        }
+        return result;
+    }
+
+    /**
+     *  Implements Brent's method, see brentMethod().
+     */
+    private static RootResult brent(Function f, double p0, double p1, double tolerance, int maxIterations) {
+        double a = p0, b = p1;
+        double fa = f.evaluate(a), fb = f.evaluate(b);
+        int evaluations = 2;
+        if (fa == 0)
+            return new RootResult(a, 0, evaluations, RootResult.Status.CONVERGED);
+        if (fb == 0)
+            return new RootResult(b, 0, evaluations, RootResult.Status.CONVERGED);
+        if (fa * fb > 0)
+            return new RootResult(Double.NaN, 0, evaluations, RootResult.Status.NO_BRACKET);
+
+        // b is the best approximation, c is the other end of the bracket, a is the previous b
+        double c = a, fc = fa;
+        double d = b - a, e = d;
+        for (int i = 1; i <= maxIterations; i++) {
+            if ((fb > 0) == (fc > 0)) {
+                c = a;
+                fc = fa;
+                d = b - a;
+                e = d;
+            }
+            if (Math.abs(fc) < Math.abs(fb)) {
+                a = b;
+                b = c;
+                c = a;
+                fa = fb;
+                fb = fc;
+                fc = fa;
+            }
+            double tol = 2 * Math.ulp(1.0) * Math.abs(b) + 0.5 * tolerance;
+            double xm = 0.5 * (c - b);
+            if (Math.abs(xm) <= tol || fb == 0)
+                return new RootResult(b, i, evaluations, RootResult.Status.CONVERGED);
+
+            if (Math.abs(e) >= tol && Math.abs(fa) > Math.abs(fb)) {
+                double p, q;
+                double s = fb / fa;
+                if (a == c) {
+                    // secant method
+                    p = 2 * xm * s;
+                    q = 1 - s;
+                } else {
+                    // inverse quadratic interpolation
+                    double r = fb / fc;
+                    q = fa / fc;
+                    p = s * (2 * xm * q * (q - r) - (b - a) * (r - 1));
+                    q = (q - 1) * (r - 1) * (s - 1);
+                }
+                if (p > 0)
+                    q = -q;
+                p = Math.abs(p);
+                if (2 * p < Math.min(3 * xm * q - Math.abs(tol * q), Math.abs(e * q))) {
+                    e = d;
+                    d = p / q;
+                } else {
+                    d = xm;
+                    e = d;
+                }
+            } else {
+                d = xm;
+                e = d;
+            }
+            a = b;
+            fa = fb;
+            b += Math.abs(d) > tol ? d : Math.copySign(tol, xm);
+            fb = f.evaluate(b);
+            evaluations++;
+        }
+        return new RootResult(b, maxIterations, evaluations, RootResult.Status.MAX_ITERATIONS);
+    }
+
+    /**
+     *  This method finds every root of f between lo and hi, returned in ascending order.
+     *  The interval is divided into ROOT_SEARCH_CELLS cells, see findAllRoots(Function, double, double, double, int).
+     *
+     * @param f         Function to approximate
+     * @param lo        Lower bound of interval
+     * @param hi        Upper bound of interval
+     * @param tolerance Desired accuracy of each root
+     * @return  sorted array of roots, empty if none were found
+     */
+    public static double[] findAllRoots(Function f, double lo, double hi, double tolerance) {
+        return findAllRoots(f, lo, hi, tolerance, ROOT_SEARCH_CELLS);
+    }
+
+    /**
+     *  This method finds every root of f between lo and hi, returned in ascending order.
+     *
+     *  The interval is divided into a number of cells that are scanned in parallel on the common ForkJoinPool.
+     *  Each cell where f changes sign is refined with the bisection method until the bracket is smaller than tolerance,
+     *  and points where f is exactly zero are returned as they are.
+     *  A cell where f does not change sign, but is closer to zero at its midpoint than at either end, may hide
+     *  a pair of roots, so it is halved adaptively a few times to look for a sign change.
+     *  Roots closer together than the width of a cell may still be missed, in which case more cells should be used.
+     *
+     *  Before a run of cells is scanned, the enclosure of f over it is computed (see Function.evaluate(Interval));
+     *  if it excludes zero the run holds no root and is skipped, and otherwise it is halved down to runs of
+     *  ROOT_SEARCH_PRUNE cells, so that only the cells near roots, or where the enclosure is too wide to decide,
+     *  are evaluated.
+     *
+     * @param f         Function to approximate
+     * @param lo        Lower bound of interval
+     * @param hi        Upper bound of interval
+     * @param tolerance Desired accuracy of each root
+     * @param cells     Number of cells to divide the interval into
+     * @return  sorted array of roots, empty if none were found
+     */
+    public static double[] findAllRoots(Function f, double lo, double hi, double tolerance, int cells) {
+        if (hi < lo) {
+            double temp = lo;
+            lo = hi;
+            hi = temp;
+        }
+        if (!(tolerance > 0) || cells < 1)
+            throw new IllegalArgumentException("tolerance and cells must be positive");
+
+        long start = SolverMetrics.ENABLED ? System.nanoTime() : 0;
+        RootSearch search = new RootSearch(f.compile(), lo, hi, cells, tolerance, 0, cells);
+        double[] roots = ForkJoinPool.commonPool().invoke(search);
+        Arrays.sort(roots);
+        if (SolverMetrics.ENABLED) {
+            SolverMetrics.recordIterations(SolverMetrics.Method.FIND_ALL_ROOTS, cells);
+            SolverMetrics.recordSolve(SolverMetrics.Method.FIND_ALL_ROOTS, cells, search.evaluations, start, true);
+        }
+
+        int count = 0;
+        for (int i = 0; i < roots.length; i++)
+            if (count == 0 || roots[i] - roots[count - 1] > tolerance)
+                roots[count++] = roots[i];
+        return Arrays.copyOf(roots, count);
+    }
+
+    /**
+     *  Task that scans cells [from, to) of an interval for roots, splitting into halves of at most
+     *  ROOT_SEARCH_LEAF cells that run in parallel.
+     */
+    private static final class RootSearch extends RecursiveTask<double[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final CompiledFunction f;
+        private final double lo;
+        private final double hi;
+        private final int cells;
+        private final double tolerance;
+        private final int from;
+        private final int to;
+        /** Roots found by this task */
+        private double[] roots = new double[4];
+        private int count;
+        /** Index of the last cell bound at which f was evaluated by scan(), or -1 */
+        private int last = -1;
+        /** Value of f at cell bound last */
+        private double fLast;
+        /** Evaluations of f by this task and its subtasks, complete once compute() returns */
+        long evaluations;
+
+        RootSearch(CompiledFunction f, double lo, double hi, int cells, double tolerance, int from, int to) {
+            this.f = f;
+            this.lo = lo;
+            this.hi = hi;
+            this.cells = cells;
+            this.tolerance = tolerance;
+            this.from = from;
+            this.to = to;
+        }
+
+        protected double[] compute() {
+            if (excludesRoot(from, to))
+                return new double[0];
+            if (to - from > ROOT_SEARCH_LEAF) {
+                int mid = (from + to) >>> 1;
+                RootSearch left = new RootSearch(f, lo, hi, cells, tolerance, from, mid);
+                RootSearch right = new RootSearch(f, lo, hi, cells, tolerance, mid, to);
+                left.fork();
+                double[] r = right.compute();
+                double[] l = left.join();
+                evaluations = left.evaluations + right.evaluations;
+                double[] both = Arrays.copyOf(l, l.length + r.length);
+                System.arraycopy(r, 0, both, l.length, r.length);
+                return both;
+            }
+
+            scan(from, to);
+            if (to == cells && last == cells && fLast == 0)
+                add(hi);
+            return Arrays.copyOf(roots, count);
+        }
+
+        /**
+         * Scans cells [from, to) for roots, skipping halves whose enclosure excludes zero.
+         */
+        private void scan(int from, int to) {
+            if (to - from > ROOT_SEARCH_PRUNE) {
+                int mid = (from + to) >>> 1;
+                if (!excludesRoot(from, mid))
+                    scan(from, mid);
+                if (!excludesRoot(mid, to))
+                    scan(mid, to);
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                double a = cellBound(i);
+                double fa = last == i ? fLast : f.evaluate(a);
+                double b = cellBound(i + 1);
+                double fb = f.evaluate(b);
+                evaluations += last == i ? 1 : 2;
+                searchCell(a, b, fa, fb, ROOT_SEARCH_DEPTH);
+                last = i + 1;
+                fLast = fb;
+            }
+        }
+
+        /**
+         * Returns whether the enclosure of f over cells [from, to) excludes zero, so that they hold no root.
+         */
+        private boolean excludesRoot(int from, int to) {
+            return !f.evaluate(new Interval(cellBound(from), cellBound(to))).containsZero();
+        }
+
+        /** Returns the lower bound of cell i, with the last bound exactly hi */
+        private double cellBound(int i) {
+            return i == cells ? hi : lo + (hi - lo) * i / cells;
+        }
+
+        /**
+         * Looks for roots in [a, b), bisecting a sign change or halving a cell that may hide a pair of roots.
+         */
+        private void searchCell(double a, double b, double fa, double fb, int depth) {
+            if (fa == 0) {
+                add(a);
+            } else if (fa * fb < 0) {
+                add(bisect(a, b, fa));
+            } else if (depth > 0 && b - a > tolerance && f.evaluate(new Interval(a, b)).containsZero()) {
+                double m = a + (b - a) / 2;
+                double fm = f.evaluate(m);
+                evaluations++;
+                if (fm == 0 || fm * fa < 0 || Math.abs(fm) < Math.min(Math.abs(fa), Math.abs(fb))) {
+                    searchCell(a, m, fa, fm, depth - 1);
+                    searchCell(m, b, fm, fb, depth - 1);
+                }
+            }
+        }
+
+        /**
+         *  Refines a bracket [p0, p1] where f(p0) has value fp0 to the tolerance, see Approximation.bisect().
+         */
+        private double bisect(double p0, double p1, double fp0) {
+            long[] count = {0};
+            double root = Approximation.bisect(f, p0, p1, fp0, tolerance, count);
+            evaluations += count[0];
+            return root;
+        }
+
+        private void add(double root) {
+            if (count == roots.length)
+                roots = Arrays.copyOf(roots, count * 2);
+            roots[count++] = root;
         }
-        return mid;
     }
 }
@@ -0,0 +1,450 @@
+package approximation;
+
+import function.terms.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ *  Class BatchRootSolver:
+ *  This class solves many independent root problems that share one shape, a list of terms of given kinds,
+ *  but each with its own coefficients and its own starting point or bracket.
+ *
+ *  The shape is given as the terms themselves rather than as a Function, so that it is not put in the canonical
+ *  form of Function: terms with a = 0 are kept, and terms of the same kind and b stay separate, which matters
+ *  when b is given per problem. Term t of the shape is the tth argument of the constructor.
+ *
+ *  The coefficients are given in a struct-of-arrays layout: a[t][i] is the coefficient a of term t of the shape
+ *  in problem i, and likewise b[t][i] for the auxiliary variable b. If b is null, every problem uses the b of
+ *  the shape's own terms, so that for example the shape x^2, x^1, x^0 with a = {a2, a1, a0} solves the
+ *  quadratics a2[i]x^2 + a1[i]x + a0[i]. The a variables of the shape itself are ignored.
+ *
+ *  Problems are solved in blocks of BLOCK_SIZE in lockstep: each iteration evaluates one term at a time over
+ *  every problem of the block that is still active, in a tight loop without a virtual call or a temporary
+ *  object per problem, and then removes the problems that have converged or failed from the active list.
+ *  Batches of more than PARALLEL_THRESHOLD problems are split across the common ForkJoinPool.
+ *
+ *  Roots are written to a double[] and the outcome of each problem to a byte[] of status codes, whose first
+ *  values match the ordinals of RootResult.Status:
+ *      CONVERGED       the root was found to the desired accuracy
+ *      MAX_ITERATIONS  the maximum number of iterations was reached first
+ *      NO_BRACKET      (bisection) f has the same sign at both ends of the interval, and the root is NaN
+ *      DIVERGED        (Newton) the iteration left the domain of f or met a zero derivative
+ *
+ *  Only the five forms of 'Term' (Power, Exp, Log, Sin, Cos) can be used in the shape.
+ */
+public final class BatchRootSolver {
+    /** Number of problems above which a batch is split across the common ForkJoinPool */
+    public static final int PARALLEL_THRESHOLD = 1 << 12;
+    /** Number of problems solved in lockstep at a time, small enough for their state to stay in cache */
+    private static final int BLOCK_SIZE = 1 << 9;
+
+    /** Status code of a problem whose root was found to the desired accuracy */
+    public static final byte CONVERGED = 0;
+    /** Status code of a problem that reached the maximum number of iterations */
+    public static final byte MAX_ITERATIONS = 1;
+    /** Status code of a bisection problem without a sign change at the ends of its interval */
+    public static final byte NO_BRACKET = 2;
+    /** Status code of a Newton problem that left the domain of f or met a zero derivative */
+    public static final byte DIVERGED = 3;
+
+    private static final int POWER = 0;
+    private static final int EXP = 1;
+    private static final int LOG = 2;
+    private static final int SIN = 3;
+    private static final int COS = 4;
+
+    /** Kind of each term of the shape */
+    private final int[] kinds;
+    /** Auxiliary variable b of each term of the shape */
+    private final double[] shapeB;
+
+    /**
+     * Constructor for BatchRootSolver given the shape of the problems.
+     * @param shape terms giving the kind of each term, and its b when no b array is given, in order
+     * @throws IllegalArgumentException if a term is not one of the five forms
+     */
+    public BatchRootSolver(Term... shape) {
+        kinds = new int[shape.length];
+        shapeB = new double[shape.length];
+        for (int t = 0; t < shape.length; t++) {
+            kinds[t] = kind(shape[t]);
+            shapeB[t] = shape[t].getB();
+        }
+    }
+
+    private static int kind(Term term) {
+        Class<?> c = term.getClass();
+        if (c == Power.class)
+            return POWER;
+        if (c == Exp.class)
+            return EXP;
+        if (c == Log.class)
+            return LOG;
+        if (c == Sin.class)
+            return SIN;
+        if (c == Cos.class)
+            return COS;
+        throw new IllegalArgumentException("Unsupported term " + c.getName());
+    }
+
+    /**
+     * Returns the number of terms of the shape, the length of the first dimension of the coefficient arrays
+     * @return number of terms
+     */
+    public int getTermCount() {
+        return kinds.length;
+    }
+
+    /**
+     *  Implements Newton's method for every problem of a batch, iterating
+     *      x_(n+1) = x_n - (f_i(x_n) / f_i'(x_n))
+     *  until the size of a step is at most tolerance, f_i(x_n) = 0, or maxIterations iterations have been performed.
+     *  roots may be the same array as starts.
+     *
+     * @param a             coefficients a[t][i] of term t in problem i
+     * @param b             auxiliary variables b[t][i] of term t in problem i, or null to use those of the shape
+     * @param starts        initial approximation of each problem
+     * @param roots         receives the last approximation of each problem
+     * @param status        receives the status code of each problem
+     * @param tolerance     Desired accuracy
+     * @param maxIterations Maximum number of iterations to perform
+     */
+    public void newtonMethod(double[][] a, double[][] b, double[] starts, double[] roots, byte[] status,
+                             double tolerance, int maxIterations) {
+        int n = starts.length;
+        checkArguments(a, b, n, tolerance, maxIterations);
+        if (roots.length < n || status.length < n)
+            throw new IllegalArgumentException("roots and status must hold every problem");
+        solve(new BatchTask(this, a, b, starts, null, roots, status, tolerance, maxIterations, 0, n),
+              SolverMetrics.Method.BATCH_NEWTON, status, n);
+    }
+
+    /**
+     *  Implements the bisection method for every problem of a batch, halving the interval [lo[i], hi[i]]
+     *  until it is at most tolerance wide or maxIterations iterations have been performed.
+     *  If lo[i] > hi[i] the ends are swapped, so the interval is the same either way round.
+     *  The root of a problem is the midpoint of its final interval, or NaN if there was no bracket.
+     *
+     * @param a             coefficients a[t][i] of term t in problem i
+     * @param b             auxiliary variables b[t][i] of term t in problem i, or null to use those of the shape
+     * @param lo            lower bound of the interval of each problem
+     * @param hi            upper bound of the interval of each problem
+     * @param roots         receives the root of each problem
+     * @param status        receives the status code of each problem
+     * @param tolerance     Desired accuracy
+     * @param maxIterations Maximum number of iterations to perform
+     */
+    public void bisectMethod(double[][] a, double[][] b, double[] lo, double[] hi, double[] roots, byte[] status,
+                             double tolerance, int maxIterations) {
+        int n = lo.length;
+        checkArguments(a, b, n, tolerance, maxIterations);
+        if (hi.length < n || roots.length < n || status.length < n)
+            throw new IllegalArgumentException("hi, roots and status must hold every problem");
+        solve(new BatchTask(this, a, b, lo, hi, roots, status, tolerance, maxIterations, 0, n),
+              SolverMetrics.Method.BATCH_BISECTION, status, n);
+    }
+
+    private void checkArguments(double[][] a, double[][] b, int n, double tolerance, int maxIterations) {
+        if (a.length != kinds.length || (b != null && b.length != kinds.length))
+            throw new IllegalArgumentException("Expected coefficients of " + kinds.length + " terms");
+        for (int t = 0; t < kinds.length; t++)
+            if (a[t].length < n || (b != null && b[t].length < n))
+                throw new IllegalArgumentException("Coefficients of term " + t + " must hold every problem");
+        if (!(tolerance >= 0) || maxIterations < 0)
+            throw new IllegalArgumentException("tolerance and maxIterations must be non-negative");
+    }
+
+    private static void solve(BatchTask task, SolverMetrics.Method method, byte[] status, int n) {
+        long start = SolverMetrics.ENABLED ? System.nanoTime() : 0;
+        ForkJoinPool.commonPool().invoke(task);
+        if (SolverMetrics.ENABLED) {
+            boolean converged = true;
+            for (int i = 0; i < n; i++)
+                converged &= status[i] == CONVERGED;
+            SolverMetrics.recordIterations(method, task.iterations);
+            SolverMetrics.recordSolve(method, task.iterations, task.evaluations, start, converged);
+        }
+    }
+
+    /**
+     *  Evaluates f_i, and f_i' if df is not null, for the count problems i = active[j] at the points x[j],
+     *  writing them to f[j] and df[j].
+     */
+    private void evaluate(double[][] a, double[][] b, int[] active, int count, double[] x, double[] f, double[] df) {
+        for (int j = 0; j < count; j++)
+            f[j] = 0;
+        if (df != null)
+            for (int j = 0; j < count; j++)
+                df[j] = 0;
+        for (int t = 0; t < kinds.length; t++) {
+            double[] at = a[t];
+            double[] bt = b == null ? null : b[t];
+            double bs = shapeB[t];
+            switch (kinds[t]) {
+                case POWER:
+                    for (int j = 0; j < count; j++) {
+                        int i = active[j];
+                        double bi = bt == null ? bs : bt[i];
+                        if (bi == 0) {
+                            f[j] += at[i];
+                        } else if (df == null || x[j] == 0) {
+                            f[j] += at[i] * pow(x[j], bi);
+                            if (df != null)
+                                df[j] += at[i] * bi * pow(x[j], bi - 1);
+                        } else {
+                            double p = pow(x[j], bi - 1);
+                            f[j] += at[i] * p * x[j];
+                            df[j] += at[i] * bi * p;
+                        }
+                    }
+                    break;
+                case EXP:
+                    for (int j = 0; j < count; j++) {
+                        int i = active[j];
+                        double bi = bt == null ? bs : bt[i];
+                        double e = at[i] * Math.exp(bi * x[j]);
+                        f[j] += e;
+                        if (df != null)
+                            df[j] += bi * e;
+                    }
+                    break;
+                case LOG:
+                    for (int j = 0; j < count; j++) {
+                        int i = active[j];
+                        double bi = bt == null ? bs : bt[i];
+                        f[j] += at[i] * Math.log(bi * x[j]);
+                        if (df != null)
+                            df[j] += at[i] / x[j];
+                    }
+                    break;
+                case SIN:
+                    for (int j = 0; j < count; j++) {
+                        int i = active[j];
+                        double bi = bt == null ? bs : bt[i];
+                        f[j] += at[i] * Math.sin(bi * x[j]);
+                        if (df != null)
+                            df[j] += at[i] * bi * Math.cos(bi * x[j]);
+                    }
+                    break;
+                default:
+                    for (int j = 0; j < count; j++) {
+                        int i = active[j];
+                        double bi = bt == null ? bs : bt[i];
+                        f[j] += at[i] * Math.cos(bi * x[j]);
+                        if (df != null)
+                            df[j] -= at[i] * bi * Math.sin(bi * x[j]);
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Returns x^e, by repeated squaring for small integer e and by Math.pow otherwise.
+     */
+    private static double pow(double x, double e) {
+        if (e == 0)
+            return 1;
+        if (e == Math.rint(e) && Math.abs(e) <= 64) {
+            int k = (int) Math.abs(e);
+            double result = 1;
+            double square = x;
+            while (k != 0) {
+                if ((k & 1) != 0)
+                    result *= square;
+                square *= square;
+                k >>>= 1;
+            }
+            return e < 0 ? 1 / result : result;
+        }
+        return Math.pow(x, e);
+    }
+
+    /**
+     *  Task that solves problems [from, to), splitting into halves of at most PARALLEL_THRESHOLD problems
+     *  that run in parallel, and solving each half in blocks of BLOCK_SIZE problems.
+     *  If hi is null the problems are solved by Newton's method from x, and otherwise by bisection on [x, hi].
+     */
+    private static final class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final BatchRootSolver solver;
+        private final double[][] a;
+        private final double[][] b;
+        private final double[] x;
+        private final double[] hi;
+        private final double[] roots;
+        private final byte[] status;
+        private final double tolerance;
+        private final int maxIterations;
+        private final int from;
+        private final int to;
+        /** Iterations of every problem by this task and its subtasks, complete once compute() returns */
+        long iterations;
+        /** Evaluations of f by this task and its subtasks, complete once compute() returns */
+        long evaluations;
+
+        BatchTask(BatchRootSolver solver, double[][] a, double[][] b, double[] x, double[] hi, double[] roots,
+                  byte[] status, double tolerance, int maxIterations, int from, int to) {
+            this.solver = solver;
+            this.a = a;
+            this.b = b;
+            this.x = x;
+            this.hi = hi;
+            this.roots = roots;
+            this.status = status;
+            this.tolerance = tolerance;
+            this.maxIterations = maxIterations;
+            this.from = from;
+            this.to = to;
+        }
+
+        private BatchTask subtask(int from, int to) {
+            return new BatchTask(solver, a, b, x, hi, roots, status, tolerance, maxIterations, from, to);
+        }
+
+        protected void compute() {
+            if (to - from > PARALLEL_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                BatchTask left = subtask(from, mid);
+                BatchTask right = subtask(mid, to);
+                invokeAll(left, right);
+                iterations = left.iterations + right.iterations;
+                evaluations = left.evaluations + right.evaluations;
+                return;
+            }
+            int block = Math.min(BLOCK_SIZE, to - from);
+            int[] active = new int[block];
+            double[] p = new double[block];
+            double[] q = new double[block];
+            double[] fp = new double[block];
+            double[] fq = new double[block];
+            double[] mid = new double[block];
+            for (int start = from; start < to; start += BLOCK_SIZE) {
+                int end = Math.min(start + BLOCK_SIZE, to);
+                if (hi == null)
+                    newton(start, end, active, p, fp, fq);
+                else
+                    bisect(start, end, active, p, q, fp, fq, mid);
+            }
+        }
+
+        /**
+         *  Solves problems [start, end) by Newton's method, with the approximations in p and f and f' in fp and dfp.
+         */
+        private void newton(int start, int end, int[] active, double[] p, double[] fp, double[] dfp) {
+            int count = end - start;
+            for (int j = 0; j < count; j++) {
+                active[j] = start + j;
+                p[j] = x[start + j];
+            }
+            for (int n = 0; n < maxIterations && count > 0; n++) {
+                solver.evaluate(a, b, active, count, p, fp, dfp);
+                evaluations += count;
+                iterations += count;
+                int kept = 0;
+                for (int j = 0; j < count; j++) {
+                    int i = active[j];
+                    double step = fp[j] / dfp[j];
+                    double next = fp[j] == 0 ? p[j] : p[j] - step;
+                    if (!Double.isFinite(next)) {
+                        roots[i] = p[j];
+                        status[i] = DIVERGED;
+                    } else if (fp[j] == 0 || Math.abs(step) <= tolerance) {
+                        roots[i] = next;
+                        status[i] = CONVERGED;
+                    } else {
+                        active[kept] = i;
+                        p[kept++] = next;
+                    }
+                }
+                count = kept;
+            }
+            for (int j = 0; j < count; j++) {
+                roots[active[j]] = p[j];
+                status[active[j]] = MAX_ITERATIONS;
+            }
+        }
+
+        /**
+         *  Solves problems [start, end) by bisection on [p, q], with f(p) in fp and f at the midpoints mid in fm.
+         */
+        private void bisect(int start, int end, int[] active, double[] p, double[] q, double[] fp, double[] fm,
+                            double[] mid) {
+            int count = end - start;
+            // the loop below keeps p < q, so the ends of a reversed interval are swapped
+            for (int j = 0; j < count; j++) {
+                active[j] = start + j;
+                p[j] = Math.max(x[start + j], hi[start + j]);
+            }
+            solver.evaluate(a, b, active, count, p, fm, null);
+            for (int j = 0; j < count; j++) {
+                q[j] = p[j];
+                p[j] = Math.min(x[start + j], hi[start + j]);
+            }
+            solver.evaluate(a, b, active, count, p, fp, null);
+            evaluations += 2L * count;
+
+            int kept = 0;
+            for (int j = 0; j < count; j++) {
+                int i = active[j];
+                if (fp[j] == 0) {
+                    roots[i] = p[j];
+                    status[i] = CONVERGED;
+                } else if (fm[j] == 0) {
+                    roots[i] = q[j];
+                    status[i] = CONVERGED;
+                } else if (!(fp[j] * fm[j] < 0)) {
+                    roots[i] = Double.NaN;
+                    status[i] = NO_BRACKET;
+                } else {
+                    active[kept] = i;
+                    p[kept] = p[j];
+                    q[kept] = q[j];
+                    fp[kept++] = fp[j];
+                }
+            }
+            count = kept;
+
+            for (int n = 0; n < maxIterations && count > 0; n++) {
+                for (int j = 0; j < count; j++)
+                    mid[j] = p[j] + (q[j] - p[j]) / 2;
+                solver.evaluate(a, b, active, count, mid, fm, null);
+                evaluations += count;
+                iterations += count;
+                kept = 0;
+                for (int j = 0; j < count; j++) {
+                    int i = active[j];
+                    double m = mid[j];
+                    if (fm[j] == 0) {
+                        roots[i] = m;
+                        status[i] = CONVERGED;
+                        continue;
+                    }
+                    double pj = p[j], qj = q[j], fpj = fp[j];
+                    if (fm[j] * fpj > 0) {
+                        pj = m;
+                        fpj = fm[j];
+                    } else {
+                        qj = m;
+                    }
+                    double next = pj + (qj - pj) / 2;
+                    if (qj - pj <= tolerance || next <= pj || next >= qj) {
+                        roots[i] = next;
+                        status[i] = CONVERGED;
+                    } else {
+                        active[kept] = i;
+                        p[kept] = pj;
+                        q[kept] = qj;
+                        fp[kept++] = fpj;
+                    }
+                }
+                count = kept;
+            }
+            for (int j = 0; j < count; j++) {
+                roots[active[j]] = p[j] + (q[j] - p[j]) / 2;
+                status[active[j]] = MAX_ITERATIONS;
+            }
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package approximation;
+
+import function.Function;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ *  Class PolynomialRoots:
+ *  This class finds every real and complex root of a polynomial at once with the Aberth-Ehrlich method,
+ *  for functions made only of a*x^b terms with non-negative integer b (see Function.getPolynomialCoefficients()).
+ *
+ *  All n roots z_i are improved together. Each step computes the Newton correction N_i = p(z_i) / p'(z_i)
+ *  and replaces z_i with
+ *      z_i - N_i / (1 - N_i * SUM(1 / (z_i - z_j)) for j != i)
+ *  which repels each approximation from the others, so that unlike repeated Newton's method with deflation
+ *  no root is found twice and no accuracy is lost to deflated coefficients. The method converges cubically to
+ *  simple roots. Updated roots are used at once (Gauss-Seidel style). Once p(z_i) is within the rounding error
+ *  of its evaluation, a root takes a few more steps, which settle the roots of ill-conditioned clusters
+ *  where any point of a whole region has a residual below the rounding error, and then stops moving.
+ *
+ *  The initial approximations are spread around the circle whose radius is the Cauchy bound of the polynomial,
+ *  the positive root of |a_n|x^n - |a_(n-1)|x^(n-1) - ... - |a_0|, which holds every root inside it.
+ *  Once converged, each root is polished with a Newton step, and roots whose imaginary part is lost in
+ *  rounding are made exactly real.
+ *
+ *  Roots are returned as two primitive arrays, double[2][n] with real parts in [0] and imaginary parts in [1],
+ *  sorted by real part and then imaginary part. A batch of polynomials can be solved in parallel with
+ *  aberthMethod(double[][]).
+ */
+public final class PolynomialRoots {
+    /** Default maximum number of Aberth iterations */
+    public static final int MAX_ITERATIONS = 200;
+    /** Number of polynomials above which a batch is split across the common ForkJoinPool */
+    public static final int PARALLEL_THRESHOLD = 16;
+    /** Relative size below which the imaginary part of a root may be rounding error */
+    private static final double REAL_TOLERANCE = 1e-5;
+    /** Number of further iterations a root takes once p(z) is within its rounding error */
+    private static final int REFINEMENT_STEPS = 3;
+    /** Unit roundoff */
+    private static final double EPSILON = Math.ulp(1.0) / 2;
+
+    private PolynomialRoots() {
+    }
+
+    /**
+     *  Finds every root of a polynomial function with the Aberth-Ehrlich method.
+     *
+     * @param f     Function made only of a*x^b terms with non-negative integer b
+     * @return  double[2][n] holding the real and imaginary parts of the n roots, where n is the degree of f
+     * @throws IllegalArgumentException if f is not a polynomial
+     */
+    public static double[][] aberthMethod(Function f) {
+        return aberthMethod(f.getPolynomialCoefficients());
+    }
+
+    /**
+     *  Finds every root of a polynomial with the Aberth-Ehrlich method.
+     *
+     * @param coefficients  coefficients of the polynomial, with coefficients[k] the coefficient of x^k
+     * @return  double[2][n] holding the real and imaginary parts of the n roots, where n is the degree
+     */
+    public static double[][] aberthMethod(double[] coefficients) {
+        return aberthMethod(coefficients, MAX_ITERATIONS);
+    }
+
+    /**
+     *  Finds every root of a polynomial with the Aberth-Ehrlich method, performing at most maxIterations iterations.
+     *  Roots that have not converged by then are returned as they are, after polishing.
+     *
+     * @param coefficients  coefficients of the polynomial, with coefficients[k] the coefficient of x^k
+     * @param maxIterations Maximum number of iterations to perform
+     * @return  double[2][n] holding the real and imaginary parts of the n roots, where n is the degree
+     */
+    public static double[][] aberthMethod(double[] coefficients, int maxIterations) {
+        long start = SolverMetrics.ENABLED ? System.nanoTime() : 0;
+        int degree = coefficients.length - 1;
+        while (degree >= 0 && coefficients[degree] == 0)
+            degree--;
+        if (degree < 0)
+            throw new IllegalArgumentException("The zero polynomial has no isolated roots");
+        for (double c : coefficients)
+            if (!Double.isFinite(c))
+                throw new IllegalArgumentException("Coefficients must be finite");
+
+        // roots at zero are exact: divide them out
+        int zeros = 0;
+        while (coefficients[zeros] == 0)
+            zeros++;
+        double[] p = Arrays.copyOfRange(coefficients, zeros, degree + 1);
+        int n = p.length - 1;
+
+        double[] re = new double[degree];
+        double[] im = new double[degree];
+        int[] iterations = new int[1];
+        boolean converged = true;
+        if (n == 1) {
+            re[0] = -p[0] / p[1];
+        } else if (n > 1) {
+            double[] bound = new double[n + 1];
+            for (int k = 0; k <= n; k++)
+                bound[k] = Math.abs(p[k]);
+            initialRoots(p, bound, re, im, n);
+            converged = iterate(p, bound, re, im, n, maxIterations, iterations);
+            for (int i = 0; i < n; i++)
+                polish(p, bound, re, im, i);
+        }
+        sort(re, im);
+
+        if (SolverMetrics.ENABLED) {
+            SolverMetrics.recordIterations(SolverMetrics.Method.ABERTH, iterations[0]);
+            SolverMetrics.recordSolve(SolverMetrics.Method.ABERTH, iterations[0], (long) iterations[0] * n, start,
+                                      converged);
+        }
+        return new double[][] {re, im};
+    }
+
+    /**
+     *  Finds every root of each polynomial of a batch with the Aberth-Ehrlich method.
+     *  Batches of more than PARALLEL_THRESHOLD polynomials are split across the common ForkJoinPool.
+     *
+     * @param polynomials   coefficients of each polynomial, with polynomials[i][k] the coefficient of x^k in the ith
+     * @return  array whose ith element holds the real and imaginary parts of the roots of the ith polynomial
+     */
+    public static double[][][] aberthMethod(double[][] polynomials) {
+        double[][][] roots = new double[polynomials.length][][];
+        ForkJoinPool.commonPool().invoke(new BatchTask(polynomials, roots, 0, polynomials.length));
+        return roots;
+    }
+
+    /**
+     *  Finds every root of each polynomial function of a batch, see aberthMethod(double[][]).
+     *
+     * @param functions Functions made only of a*x^b terms with non-negative integer b
+     * @return  array whose ith element holds the real and imaginary parts of the roots of the ith function
+     * @throws IllegalArgumentException if a function is not a polynomial
+     */
+    public static double[][][] aberthMethod(Function[] functions) {
+        double[][] polynomials = new double[functions.length][];
+        for (int i = 0; i < functions.length; i++)
+            polynomials[i] = functions[i].getPolynomialCoefficients();
+        return aberthMethod(polynomials);
+    }
+
+    /**
+     *  Places n initial approximations on the circle whose radius is the Cauchy bound, the positive root of
+     *      q(x) = |a_n|x^n - SUM(|a_k|x^k) for k < n
+     *  found by Newton's method from Fujiwara's bound 2 * max|a_k / a_n|^(1/(n-k)), which lies above it by at
+     *  most a factor of 2, and from which Newton's method decreases monotonically.
+     *  The angles are offset so that no approximation starts on the real axis, where complex roots of a
+     *  polynomial with real coefficients could not be reached.
+     */
+    private static void initialRoots(double[] p, double[] bound, double[] re, double[] im, int n) {
+        double radius = 0;
+        for (int k = 0; k < n; k++)
+            radius = Math.max(radius, Math.pow(bound[k] / bound[n], 1.0 / (n - k)));
+        radius *= 2;
+        for (int i = 0; i < 50; i++) {
+            double q = bound[n];
+            double dq = 0;
+            for (int k = n - 1; k >= 0; k--) {
+                dq = dq * radius + q;
+                q = q * radius - bound[k];
+            }
+            if (!(q > 0) || !(dq > 0))
+                break;
+            double next = radius - q / dq;
+            if (!(next < radius) || radius - next <= 1e-3 * radius)
+                break;
+            radius = next;
+        }
+        for (int i = 0; i < n; i++) {
+            double angle = 2 * Math.PI * i / n + 0.4;
+            re[i] = radius * Math.cos(angle);
+            im[i] = radius * Math.sin(angle);
+        }
+    }
+
+    /**
+     *  Performs Aberth iterations until every root has converged or maxIterations iterations have been performed.
+     *
+     * @param iterations    receives the number of iterations performed in iterations[0]
+     * @return  Whether every root converged
+     */
+    private static boolean iterate(double[] p, double[] bound, double[] re, double[] im, int n, int maxIterations,
+                                   int[] iterations) {
+        int[] settled = new int[n];
+        double[] h = new double[6];
+        int remaining = n;
+        int iteration = 0;
+        while (remaining > 0 && iteration < maxIterations) {
+            iteration++;
+            for (int i = 0; i < n; i++) {
+                if (settled[i] > REFINEMENT_STEPS)
+                    continue;
+                double zr = re[i], zi = im[i];
+                horner(p, bound, zr, zi, h);
+                if (Math.hypot(h[0], h[1]) <= h[4] && ++settled[i] > REFINEMENT_STEPS) {
+                    remaining--;
+                    continue;
+                }
+                // Newton correction N = p(z) / p'(z)
+                double nr, ni;
+                double dr = h[2], di = h[3];
+                double dd = dr * dr + di * di;
+                if (dd == 0) {
+                    // stationary point: nudge the approximation instead
+                    re[i] = zr + Math.ulp(1.0 + Math.abs(zr)) * 1024;
+                    im[i] = zi + Math.ulp(1.0 + Math.abs(zi)) * 1024;
+                    continue;
+                }
+                nr = (h[0] * dr + h[1] * di) / dd;
+                ni = (h[1] * dr - h[0] * di) / dd;
+                // S = SUM(1 / (z_i - z_j))
+                double sr = 0, si = 0;
+                for (int j = 0; j < n; j++) {
+                    if (j == i)
+                        continue;
+                    double ur = zr - re[j], ui = zi - im[j];
+                    double uu = ur * ur + ui * ui;
+                    sr += ur / uu;
+                    si -= ui / uu;
+                }
+                // w = N / (1 - N*S)
+                double br = 1 - (nr * sr - ni * si);
+                double bi = -(nr * si + ni * sr);
+                double bb = br * br + bi * bi;
+                double wr = (nr * br + ni * bi) / bb;
+                double wi = (ni * br - nr * bi) / bb;
+                if (!Double.isFinite(wr) || !Double.isFinite(wi)) {
+                    wr = nr;
+                    wi = ni;
+                }
+                re[i] = zr - wr;
+                im[i] = zi - wi;
+                if (Math.hypot(wr, wi) <= 2 * EPSILON * Math.hypot(re[i], im[i])) {
+                    settled[i] = REFINEMENT_STEPS + 1;
+                    remaining--;
+                }
+            }
+        }
+        iterations[0] = iteration;
+        return remaining == 0;
+    }
+
+    /**
+     *  Polishes root i with one Newton step, kept only if it reduces |p(z)|,
+     *  and then makes it real if its imaginary part is lost in rounding.
+     */
+    private static void polish(double[] p, double[] bound, double[] re, double[] im, int i) {
+        double[] h = new double[6];
+        double zr = re[i], zi = im[i];
+        horner(p, bound, zr, zi, h);
+        double residual = Math.hypot(h[0], h[1]);
+        double dd = h[2] * h[2] + h[3] * h[3];
+        if (dd > 0 && residual > 0) {
+            double nr = zr - (h[0] * h[2] + h[1] * h[3]) / dd;
+            double ni = zi - (h[1] * h[2] - h[0] * h[3]) / dd;
+            horner(p, bound, nr, ni, h);
+            double polished = Math.hypot(h[0], h[1]);
+            if (polished < residual) {
+                zr = nr;
+                zi = ni;
+                residual = polished;
+            }
+        }
+        if (zi != 0 && Math.abs(zi) <= REAL_TOLERANCE * Math.max(1, Math.hypot(zr, zi))) {
+            horner(p, bound, zr, 0, h);
+            if (Math.abs(h[0]) <= Math.max(residual, h[4]))
+                zi = 0;
+        }
+        re[i] = zr;
+        im[i] = zi;
+    }
+
+    /**
+     *  Evaluates p and p' at the complex point z = zr + i*zi by Horner's rule, storing
+     *      h[0], h[1]  real and imaginary parts of p(z)
+     *      h[2], h[3]  real and imaginary parts of p'(z)
+     *      h[4]        bound on the rounding error of p(z), from Horner's rule on |a_k| at |z|
+     */
+    private static void horner(double[] p, double[] bound, double zr, double zi, double[] h) {
+        int n = p.length - 1;
+        double pr = p[n], pi = 0;
+        double dr = 0, di = 0;
+        double abs = Math.hypot(zr, zi);
+        double e = bound[n];
+        for (int k = n - 1; k >= 0; k--) {
+            double t = dr * zr - di * zi + pr;
+            di = dr * zi + di * zr + pi;
+            dr = t;
+            t = pr * zr - pi * zi + p[k];
+            pi = pr * zi + pi * zr;
+            pr = t;
+            e = e * abs + bound[k];
+        }
+        h[0] = pr;
+        h[1] = pi;
+        h[2] = dr;
+        h[3] = di;
+        h[4] = 4 * n * EPSILON * e;
+    }
+
+    /**
+     *  Sorts roots by real part and then imaginary part, with an insertion sort since n is small.
+     */
+    private static void sort(double[] re, double[] im) {
+        for (int i = 1; i < re.length; i++) {
+            double r = re[i], m = im[i];
+            int j = i - 1;
+            while (j >= 0 && (re[j] > r || (re[j] == r && im[j] > m))) {
+                re[j + 1] = re[j];
+                im[j + 1] = im[j];
+                j--;
+            }
+            re[j + 1] = r;
+            im[j + 1] = m;
+        }
+    }
+
+    /**
+     *  Task that halves a batch of polynomials until each part is at most PARALLEL_THRESHOLD polynomials.
+     */
+    private static final class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final double[][] polynomials;
+        private final double[][][] roots;
+        private final int from;
+        private final int to;
+
+        BatchTask(double[][] polynomials, double[][][] roots, int from, int to) {
+            this.polynomials = polynomials;
+            this.roots = roots;
+            this.from = from;
+            this.to = to;
+        }
+
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                for (int i = from; i < to; i++)
+                    roots[i] = aberthMethod(polynomials[i]);
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new BatchTask(polynomials, roots, from, mid), new BatchTask(polynomials, roots, mid, to));
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package approximation;
+
+/**
+ *  Class RootResult
+ *
+ *  This class holds the result of a root approximation together with how it was reached:
+ *  the approximate root, the number of iterations performed, the number of times the function was evaluated,
+ *  and whether the method converged.
+ */
+public final class RootResult {
+
+    /**
+     * Outcome of a root approximation.
+     */
+    public enum Status {
+        /** The root was found to the desired accuracy */
+        CONVERGED,
+        /** The maximum number of iterations was reached first */
+        MAX_ITERATIONS,
+        /** The function has the same sign at both ends of the interval, so there is no bracket to search */
+        NO_BRACKET
+    }
+
+    /** Approximate root */
+    private final double root;
+    /** Number of iterations performed */
+    private final int iterations;
+    /** Number of function evaluations */
+    private final int evaluations;
+    /** Outcome of the approximation */
+    private final Status status;
+
+    /**
+     * Constructor for RootResult.
+     * @param root          approximate root
+     * @param iterations    number of iterations performed
+     * @param evaluations   number of function evaluations
+     * @param status        outcome of the approximation
+     */
+    public RootResult(double root, int iterations, int evaluations, Status status) {
+        this.root = root;
+        this.iterations = iterations;
+        this.evaluations = evaluations;
+        this.status = status;
+    }
+
+    /**
+     * Returns the approximate root, or NaN if there was no bracket
+     * @return approximate root
+     */
+    public double getRoot() {
+        return root;
+    }
+
+    /**
+     * Returns the number of iterations performed
+     * @return number of iterations
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Returns the number of function evaluations
+     * @return number of evaluations
+     */
+    public int getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * Returns the outcome of the approximation
+     * @return status
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns whether the root was found to the desired accuracy
+     * @return whether the status is CONVERGED
+     */
+    public boolean isConverged() {
+        return status == Status.CONVERGED;
+    }
+
+    /**
+     * Returns a string representation of this result.
+     * @return String representation of this result
+     */
+    public String toString() {
+        return status + ": " + root + " (" + iterations + " iterations, " + evaluations + " evaluations)";
+    }
+}
@@ -0,0 +1,22 @@
+package approximation;
+
+/**
+ *  Interface SolverListener
+ *
+ *  Receives a callback for every completed solve by a method of Approximation when metrics are enabled,
+ *  see SolverMetrics.addListener(). Listeners are called on the thread that ran the solve, after its counters
+ *  have been recorded, so they should return quickly and must be thread-safe.
+ */
+public interface SolverListener {
+    /**
+     * Called when a solve completes.
+     * @param method        method that ran
+     * @param iterations    number of iterations performed
+     * @param evaluations   number of evaluations of the function (each evaluation of f together with its
+     *                      derivatives counts once)
+     * @param nanos         wall-clock duration of the solve in nanoseconds
+     * @param converged     whether the solve found a root; false if it produced a non-finite value,
+     *                      ran out of iterations, or had no sign change to bracket
+     */
+    void onSolve(SolverMetrics.Method method, long iterations, long evaluations, long nanos, boolean converged);
+}
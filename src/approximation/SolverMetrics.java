@@ -0,0 +1,189 @@
+package approximation;
+
+import function.FunctionMetrics;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *  Class SolverMetrics
+ *
+ *  Optional per-method counters and latency histograms for the root-finding methods of Approximation.
+ *
+ *  Metrics are enabled together with FunctionMetrics, by starting the JVM with -Dnumericalanalysis.metrics=true.
+ *  ENABLED is a static final field, so when it is false the JIT compiler removes the instrumentation from the
+ *  solvers entirely: they then only keep the iteration and evaluation counts in local variables.
+ *
+ *  For each Method the following are recorded, in striped LongAdder counters:
+ *      solves          completed solves
+ *      iterations      iterations performed, counted as they happen
+ *      evaluations     evaluations of the function by completed solves
+ *      failures        completed solves that did not converge (see SolverListener.onSolve())
+ *      latency         a histogram of the duration of each solve, where bucket i counts durations
+ *                      in [2^i, 2^(i+1)) nanoseconds
+ *  Since iterations are counted while a solve runs, a solve that never terminates, such as newtonMethodBound()
+ *  cycling between two points, shows up as iterations growing while solves does not.
+ *
+ *  Listeners added with addListener() are called after every completed solve.
+ */
+public final class SolverMetrics {
+    /** Whether metrics are collected, fixed when FunctionMetrics is loaded */
+    public static final boolean ENABLED = FunctionMetrics.ENABLED;
+    /** Number of buckets of each latency histogram */
+    public static final int LATENCY_BUCKETS = 64;
+
+    /**
+     *  The instrumented methods of Approximation, PolynomialRoots and BatchRootSolver. The Bound variants share
+     *  a Method with the fixed-iteration ones, and Halley's method is recorded as HOUSEHOLDER. A batch is recorded
+     *  as one solve, whose iterations and evaluations are summed over its problems, and which converged only if
+     *  every problem did.
+     */
+    public enum Method {
+        NEWTON, HOUSEHOLDER, BISECTION, BRENT, FIND_ALL_ROOTS, ABERTH, BATCH_NEWTON, BATCH_BISECTION
+    }
+
+    /** Counters of each method, indexed by ordinal */
+    private static final Counters[] COUNTERS = new Counters[Method.values().length];
+    /** Registered listeners */
+    private static final CopyOnWriteArrayList<SolverListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    static {
+        for (int i = 0; i < COUNTERS.length; i++)
+            COUNTERS[i] = new Counters();
+    }
+
+    private SolverMetrics() {
+    }
+
+    /**
+     * Counts one iteration of a running solve.
+     */
+    static void recordIteration(Method method) {
+        COUNTERS[method.ordinal()].iterations.increment();
+    }
+
+    /**
+     * Counts a number of iterations of a running solve.
+     */
+    static void recordIterations(Method method, long iterations) {
+        COUNTERS[method.ordinal()].iterations.add(iterations);
+    }
+
+    /**
+     * Records a completed solve that started at System.nanoTime() = start, and notifies the listeners.
+     * Its iterations must already have been counted with recordIteration().
+     */
+    static void recordSolve(Method method, long iterations, long evaluations, long start, boolean converged) {
+        long nanos = System.nanoTime() - start;
+        Counters c = COUNTERS[method.ordinal()];
+        c.solves.increment();
+        c.evaluations.add(evaluations);
+        if (!converged)
+            c.failures.increment();
+        c.latency[bucket(nanos)].increment();
+        for (SolverListener listener : LISTENERS)
+            listener.onSolve(method, iterations, evaluations, nanos, converged);
+    }
+
+    /**
+     * Returns the latency bucket of a duration, floor(log2(nanos)), with durations under 1 ns in bucket 0.
+     */
+    private static int bucket(long nanos) {
+        return nanos <= 1 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+    }
+
+    /**
+     * Adds a listener to be called after every completed solve. Has no effect if metrics are disabled.
+     * @param listener listener to add
+     */
+    public static void addListener(SolverListener listener) {
+        LISTENERS.add(listener);
+    }
+
+    /**
+     * Removes a listener added with addListener().
+     * @param listener listener to remove
+     */
+    public static void removeListener(SolverListener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    /**
+     * Returns the number of completed solves by a method
+     * @param method solver method
+     * @return number of solves
+     */
+    public static long getSolves(Method method) {
+        return COUNTERS[method.ordinal()].solves.sum();
+    }
+
+    /**
+     * Returns the number of iterations performed by a method, including those of solves still running
+     * @param method solver method
+     * @return number of iterations
+     */
+    public static long getIterations(Method method) {
+        return COUNTERS[method.ordinal()].iterations.sum();
+    }
+
+    /**
+     * Returns the number of evaluations of the function by completed solves of a method
+     * @param method solver method
+     * @return number of evaluations
+     */
+    public static long getEvaluations(Method method) {
+        return COUNTERS[method.ordinal()].evaluations.sum();
+    }
+
+    /**
+     * Returns the number of completed solves by a method that did not converge
+     * @param method solver method
+     * @return number of failures
+     */
+    public static long getFailures(Method method) {
+        return COUNTERS[method.ordinal()].failures.sum();
+    }
+
+    /**
+     * Returns a snapshot of the latency histogram of a method, where element i counts the solves that took
+     * between 2^i and 2^(i+1) nanoseconds.
+     * @param method solver method
+     * @return array of LATENCY_BUCKETS counts
+     */
+    public static long[] getLatencyHistogram(Method method) {
+        LongAdder[] latency = COUNTERS[method.ordinal()].latency;
+        long[] histogram = new long[LATENCY_BUCKETS];
+        for (int i = 0; i < LATENCY_BUCKETS; i++)
+            histogram[i] = latency[i].sum();
+        return histogram;
+    }
+
+    /**
+     * Resets the counters of every method to zero. Listeners are kept.
+     */
+    public static void reset() {
+        for (Counters c : COUNTERS) {
+            c.solves.reset();
+            c.iterations.reset();
+            c.evaluations.reset();
+            c.failures.reset();
+            for (LongAdder bucket : c.latency)
+                bucket.reset();
+        }
+    }
+
+    /**
+     * Counters of one method.
+     */
+    private static final class Counters {
+        final LongAdder solves = new LongAdder();
+        final LongAdder iterations = new LongAdder();
+        final LongAdder evaluations = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder[] latency = new LongAdder[LATENCY_BUCKETS];
+
+        Counters() {
+            for (int i = 0; i < LATENCY_BUCKETS; i++)
+                latency[i] = new LongAdder();
+        }
+    }
+}
@@ -0,0 +1,516 @@
+package function;
+
+import function.terms.*;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ *  Class CompiledFunction
+ *
+ *  This class is an immutable, array-backed evaluator for a Function, returned by Function.compile().
+ *
+ *  Power terms with a non-negative integer exponent up to MAX_POLYNOMIAL_DEGREE are gathered into the dense
+ *  coefficient array of a polynomial, poly[k] = coefficient of x^k, which is evaluated without Math.pow:
+ *  by Horner's rule, or for degrees of at least ESTRIN_DEGREE by Estrin's scheme, which evaluates blocks of
+ *  four coefficients as (c_0 + c_1*x) + x^2*(c_2 + c_3*x) and combines the blocks by Horner's rule in x^4,
+ *  cutting the chain of dependent multiplications by a factor of four. The value and the derivative are
+ *  computed together in the same sweep.
+ *
+ *  The coefficients a and b of every other term are stored in two flat arrays, grouped by the kind of term:
+ *      a[0 .. powerEnd)        a*x^b (non-integer, negative or large b)
+ *      a[powerEnd .. expEnd)   a*e^bx
+ *      a[expEnd .. logEnd)     a*ln(bx)
+ *      a[logEnd .. sinEnd)     a*sin(bx)
+ *      a[sinEnd .. cosEnd)     a*cos(bx)
+ *  so that each group is evaluated in its own tight loop without a virtual call per term.
+ *  Terms of any other subclass of 'Term' are kept as objects and evaluated after the groups.
+ *
+ *  Grids of points are evaluated by evaluate(xs, out), which runs one term at a time over blocks of the grid,
+ *  and splits grids larger than PARALLEL_THRESHOLD points across the common ForkJoinPool.
+ *
+ *  A CompiledFunction is a snapshot: later changes to the Function it was compiled from are not reflected.
+ *  Because it is never modified after construction, it may be shared freely between threads
+ *  (provided that any terms of other subclasses are not modified either).
+ */
+public final class CompiledFunction implements DoubleUnaryOperator {
+    /** Number of points above which a batch evaluation is split across the common ForkJoinPool */
+    public static final int PARALLEL_THRESHOLD = 1 << 13;
+    /** Number of points evaluated by each term at a time, small enough for xs and out to stay in cache */
+    private static final int BLOCK_SIZE = 1 << 10;
+    /** Largest exponent of a Power term gathered into the polynomial */
+    public static final int MAX_POLYNOMIAL_DEGREE = 32;
+    /** Smallest degree of the polynomial evaluated by Estrin's scheme rather than Horner's rule */
+    public static final int ESTRIN_DEGREE = 12;
+
+    /** Coefficients of the polynomial, poly[k] = coefficient of x^k, padded with zeros to a multiple of 4 */
+    private final double[] poly;
+    /** Coefficients of the derivative of the polynomial, dpoly[k] = (k + 1)*poly[k + 1], padded like poly */
+    private final double[] dpoly;
+    /** Degree of the polynomial, or -1 if there are no integer Power terms */
+    private final int degree;
+
+    /** Coefficient variables a, grouped by kind of term */
+    private final double[] a;
+    /** Auxiliary variables b, grouped by kind of term */
+    private final double[] b;
+    /** End of the Power group */
+    private final int powerEnd;
+    /** End of the Exp group */
+    private final int expEnd;
+    /** End of the Log group */
+    private final int logEnd;
+    /** End of the Sin group */
+    private final int sinEnd;
+    /** End of the Cos group */
+    private final int cosEnd;
+    /** Terms that are not one of the five known forms */
+    private final Term[] other;
+
+    /**
+     * Constructor that compiles the current terms of a Function.
+     * @param f Function to compile
+     */
+    CompiledFunction(Function f) {
+        int size = f.getSize();
+        int[] counts = new int[6];
+        int maxDegree = -1;
+        int polyTerms = 0;
+        for (Term term : f.terms()) {
+            if (isPolynomial(term)) {
+                maxDegree = Math.max(maxDegree, (int) term.getB());
+                polyTerms++;
+            } else {
+                counts[kind(term)]++;
+            }
+        }
+        degree = maxDegree;
+        int padded = (degree + 4) & ~3;
+        poly = new double[padded];
+        dpoly = new double[padded];
+
+        int[] next = new int[6];
+        for (int k = 1; k < 6; k++)
+            next[k] = next[k - 1] + counts[k - 1];
+        powerEnd = next[1];
+        expEnd = next[2];
+        logEnd = next[3];
+        sinEnd = next[4];
+        cosEnd = next[5];
+
+        a = new double[cosEnd];
+        b = new double[cosEnd];
+        other = new Term[size - polyTerms - cosEnd];
+        for (Term term : f.terms()) {
+            if (isPolynomial(term)) {
+                poly[(int) term.getB()] += term.getA();
+                continue;
+            }
+            int k = kind(term);
+            if (k == 5) {
+                other[next[5]++ - cosEnd] = term;
+            } else {
+                a[next[k]] = term.getA();
+                b[next[k]] = term.getB();
+                next[k]++;
+            }
+        }
+        for (int k = 0; k < degree; k++)
+            dpoly[k] = (k + 1) * poly[k + 1];
+    }
+
+    /**
+     * Returns whether a term is a Power term with an integer exponent from 0 to MAX_POLYNOMIAL_DEGREE.
+     */
+    static boolean isPolynomial(Term term) {
+        double b = term.getB();
+        return term.getClass() == Power.class && b >= 0 && b <= MAX_POLYNOMIAL_DEGREE && b == Math.rint(b);
+    }
+
+    /**
+     * Returns the value of the polynomial at x.
+     */
+    private double polynomial(double x) {
+        if (degree < ESTRIN_DEGREE || !Double.isFinite(x)) {
+            if (degree < 0)
+                return 0;
+            double p = poly[degree];
+            for (int k = degree - 1; k >= 0; k--)
+                p = p * x + poly[k];
+            return p;
+        }
+        double x2 = x * x;
+        double x4 = x2 * x2;
+        double p = 0;
+        for (int k = poly.length - 4; k >= 0; k -= 4)
+            p = p * x4 + ((poly[k] + poly[k + 1] * x) + x2 * (poly[k + 2] + poly[k + 3] * x));
+        return p;
+    }
+
+    /**
+     * Stores the value of the polynomial at x in result[0] and its derivative in result[1], in one sweep.
+     * Infinite and NaN x use Horner's rule, where the zero padding of the Estrin blocks could give 0 * infinity.
+     */
+    private void polynomialWithDerivative(double x, double[] result) {
+        double p = 0;
+        double d = 0;
+        if (degree < ESTRIN_DEGREE || !Double.isFinite(x)) {
+            if (degree >= 0) {
+                p = poly[degree];
+                for (int k = degree - 1; k >= 0; k--) {
+                    d = d * x + p;
+                    p = p * x + poly[k];
+                }
+            }
+        } else {
+            double x2 = x * x;
+            double x4 = x2 * x2;
+            for (int k = poly.length - 4; k >= 0; k -= 4) {
+                p = p * x4 + ((poly[k] + poly[k + 1] * x) + x2 * (poly[k + 2] + poly[k + 3] * x));
+                d = d * x4 + ((dpoly[k] + dpoly[k + 1] * x) + x2 * (dpoly[k + 2] + dpoly[k + 3] * x));
+            }
+        }
+        result[0] = p;
+        result[1] = d;
+    }
+
+    /**
+     * Returns the group index of a term: 0 = Power, 1 = Exp, 2 = Log, 3 = Sin, 4 = Cos, 5 = other.
+     * Subclasses of the five forms may override evaluate(), so only the exact classes are grouped.
+     * @param term term to classify
+     * @return group index
+     */
+    private static int kind(Term term) {
+        Class<?> c = term.getClass();
+        if (c == Power.class)
+            return 0;
+        if (c == Exp.class)
+            return 1;
+        if (c == Log.class)
+            return 2;
+        if (c == Sin.class)
+            return 3;
+        if (c == Cos.class)
+            return 4;
+        return 5;
+    }
+
+    /**
+     * Returns function evaluated at a given x
+     * @param x to be evaluated
+     * @return f(x)
+     */
+    public double evaluate(double x) {
+        double sum = polynomial(x);
+        int i = 0;
+        for (; i < powerEnd; i++)
+            sum += a[i] * Math.pow(x, b[i]);
+        for (; i < expEnd; i++)
+            sum += a[i] * Math.exp(b[i] * x);
+        for (; i < logEnd; i++)
+            sum += a[i] * Math.log(b[i] * x);
+        for (; i < sinEnd; i++)
+            sum += a[i] * Math.sin(b[i] * x);
+        for (; i < cosEnd; i++)
+            sum += a[i] * Math.cos(b[i] * x);
+        for (Term term : other)
+            sum += term.evaluate(x);
+        return sum;
+    }
+
+    /**
+     * Returns an enclosure of the range of this function over an interval of x, see Function.evaluate(Interval).
+     * Each coefficient of the polynomial is enclosed as a monomial of its own.
+     * @param x interval of x
+     * @return interval containing f(x) for every x in the interval
+     */
+    public Interval evaluate(Interval x) {
+        Interval sum = Interval.point(0);
+        for (int k = 0; k <= degree; k++)
+            if (poly[k] != 0)
+                sum = sum.add(x.pow(k).scale(poly[k]));
+        int i = 0;
+        for (; i < powerEnd; i++)
+            sum = sum.add(x.pow(b[i]).scale(a[i]));
+        for (; i < expEnd; i++)
+            sum = sum.add(x.scale(b[i]).exp().scale(a[i]));
+        for (; i < logEnd; i++)
+            sum = sum.add(x.scale(b[i]).log().scale(a[i]));
+        for (; i < sinEnd; i++)
+            sum = sum.add(x.scale(b[i]).sin().scale(a[i]));
+        for (; i < cosEnd; i++)
+            sum = sum.add(x.scale(b[i]).cos().scale(a[i]));
+        for (Term term : other)
+            sum = sum.add(term.evaluate(x));
+        return sum;
+    }
+
+    /**
+     * Evaluates this function and its first derivative at a given x in one pass,
+     * storing f(x) in result[0] and f'(x) in result[1].
+     * @param x      to be evaluated
+     * @param result array of length at least 2 to hold f(x) and f'(x)
+     */
+    public void evaluateWithDerivative(double x, double[] result) {
+        polynomialWithDerivative(x, result);
+        double value = result[0];
+        double slope = result[1];
+        int i = 0;
+        for (; i < powerEnd; i++) {
+            if (b[i] == 0 || x == 0) {
+                value += a[i] * Math.pow(x, b[i]);
+                if (b[i] != 0)
+                    slope += a[i] * b[i] * Math.pow(x, b[i] - 1);
+            } else {
+                double p = a[i] * Math.pow(x, b[i] - 1);
+                value += p * x;
+                slope += p * b[i];
+            }
+        }
+        for (; i < expEnd; i++) {
+            double e = a[i] * Math.exp(b[i] * x);
+            value += e;
+            slope += b[i] * e;
+        }
+        for (; i < logEnd; i++) {
+            value += a[i] * Math.log(b[i] * x);
+            slope += a[i] / x;
+        }
+        for (; i < sinEnd; i++) {
+            double bx = b[i] * x;
+            value += a[i] * Math.sin(bx);
+            slope += a[i] * b[i] * Math.cos(bx);
+        }
+        for (; i < cosEnd; i++) {
+            double bx = b[i] * x;
+            value += a[i] * Math.cos(bx);
+            slope -= a[i] * b[i] * Math.sin(bx);
+        }
+        result[0] = value;
+        result[1] = slope;
+        for (Term term : other)
+            term.evaluateWithDerivative(x, result);
+    }
+
+    /**
+     * Evaluates this function and all of its derivatives up to order result.length - 1 at a given x in one pass,
+     * storing the jth derivative f^(j)(x) in result[j]. See Term.evaluateDerivatives() for the closed forms used.
+     * @param x      to be evaluated
+     * @param result array to hold f(x), f'(x), ..., f^(result.length - 1)(x)
+     */
+    public void evaluateDerivatives(double x, double[] result) {
+        int n = result.length;
+        Arrays.fill(result, 0);
+        if (n == 0)
+            return;
+        if (degree >= 0) {
+            // Horner's rule carried to the derivatives: result[j] accumulates f^(j)(x) / j!
+            result[0] = poly[degree];
+            for (int k = degree - 1; k >= 0; k--) {
+                for (int j = Math.min(n - 1, degree - k); j >= 1; j--)
+                    result[j] = result[j] * x + result[j - 1];
+                result[0] = result[0] * x + poly[k];
+            }
+            double factorial = 1;
+            for (int j = 2; j < n; j++) {
+                factorial *= j;
+                result[j] *= factorial;
+            }
+        }
+        int i = 0;
+        for (; i < powerEnd; i++) {
+            double coefficient = a[i];
+            double power = Math.pow(x, b[i]);
+            for (int j = 0; j < n && coefficient != 0; j++) {
+                result[j] += coefficient * power;
+                coefficient *= b[i] - j;
+                power = x == 0 ? Math.pow(x, b[i] - j - 1) : power / x;
+            }
+        }
+        for (; i < expEnd; i++) {
+            double e = a[i] * Math.exp(b[i] * x);
+            for (int j = 0; j < n; j++) {
+                result[j] += e;
+                e *= b[i];
+            }
+        }
+        for (; i < logEnd; i++) {
+            result[0] += a[i] * Math.log(b[i] * x);
+            double d = a[i] / x;
+            for (int j = 1; j < n; j++) {
+                result[j] += d;
+                d *= -j / x;
+            }
+        }
+        for (; i < cosEnd; i++) {
+            // sin(bx) and cos(bx) are phase shifts of each other: the jth derivative of a*sin(bx) is
+            // ab^j*sin(bx + j*pi/2), and cos is sin shifted by one derivative
+            double bx = b[i] * x;
+            double s = Math.sin(bx);
+            double c = Math.cos(bx);
+            int shift = i < sinEnd ? 0 : 1;
+            double scale = a[i];
+            for (int j = 0; j < n; j++) {
+                switch ((j + shift) & 3) {
+                    case 0: result[j] += scale * s; break;
+                    case 1: result[j] += scale * c; break;
+                    case 2: result[j] -= scale * s; break;
+                    default: result[j] -= scale * c; break;
+                }
+                scale *= b[i];
+            }
+        }
+        for (Term term : other)
+            term.evaluateDerivatives(x, result);
+    }
+
+    /**
+     * Returns function evaluated at a given x, so that a CompiledFunction can be used as a DoubleUnaryOperator.
+     * @param x to be evaluated
+     * @return f(x)
+     */
+    public double applyAsDouble(double x) {
+        return evaluate(x);
+    }
+
+    /**
+     * Evaluates this function at every point of xs, storing f(xs[i]) in out[i].
+     * @param xs  values of x
+     * @param out array to hold f(x), at least as long as xs
+     */
+    public void evaluate(double[] xs, double[] out) {
+        evaluate(xs, 0, out, 0, xs.length);
+    }
+
+    /**
+     * Evaluates this function at xs[xOffset] to xs[xOffset + length - 1],
+     * storing f(xs[xOffset + i]) in out[outOffset + i].
+     * Grids longer than PARALLEL_THRESHOLD are split across the common ForkJoinPool.
+     * @param xs        values of x
+     * @param xOffset   index of the first x
+     * @param out       array to hold f(x)
+     * @param outOffset index of the first f(x)
+     * @param length    number of points
+     */
+    public void evaluate(double[] xs, int xOffset, double[] out, int outOffset, int length) {
+        Objects.checkFromIndexSize(xOffset, length, xs.length);
+        Objects.checkFromIndexSize(outOffset, length, out.length);
+        if (length > PARALLEL_THRESHOLD)
+            ForkJoinPool.commonPool().invoke(new BatchTask(xs, xOffset, out, outOffset, length));
+        else
+            evaluateSerial(xs, xOffset, out, outOffset, length);
+    }
+
+    /**
+     * Evaluates a range of points on the calling thread, one block of the grid at a time.
+     * Within a block each term is applied to every point before moving on to the next term.
+     */
+    private void evaluateSerial(double[] xs, int xOffset, double[] out, int outOffset, int length) {
+        for (int start = 0; start < length; start += BLOCK_SIZE) {
+            int x0 = xOffset + start;
+            int o0 = outOffset + start;
+            int n = Math.min(BLOCK_SIZE, length - start);
+            if (degree < 0) {
+                Arrays.fill(out, o0, o0 + n, 0);
+            } else {
+                // Horner's rule, one coefficient at a time over the whole block
+                Arrays.fill(out, o0, o0 + n, poly[degree]);
+                for (int d = degree - 1; d >= 0; d--) {
+                    double c = poly[d];
+                    for (int k = 0; k < n; k++)
+                        out[o0 + k] = out[o0 + k] * xs[x0 + k] + c;
+                }
+            }
+            int i = 0;
+            for (; i < powerEnd; i++) {
+                double ai = a[i], bi = b[i];
+                for (int k = 0; k < n; k++)
+                    out[o0 + k] += ai * Math.pow(xs[x0 + k], bi);
+            }
+            for (; i < expEnd; i++) {
+                double ai = a[i], bi = b[i];
+                for (int k = 0; k < n; k++)
+                    out[o0 + k] += ai * Math.exp(bi * xs[x0 + k]);
+            }
+            for (; i < logEnd; i++) {
+                double ai = a[i], bi = b[i];
+                for (int k = 0; k < n; k++)
+                    out[o0 + k] += ai * Math.log(bi * xs[x0 + k]);
+            }
+            for (; i < sinEnd; i++) {
+                double ai = a[i], bi = b[i];
+                for (int k = 0; k < n; k++)
+                    out[o0 + k] += ai * Math.sin(bi * xs[x0 + k]);
+            }
+            for (; i < cosEnd; i++) {
+                double ai = a[i], bi = b[i];
+                for (int k = 0; k < n; k++)
+                    out[o0 + k] += ai * Math.cos(bi * xs[x0 + k]);
+            }
+            for (Term term : other) {
+                for (int k = 0; k < n; k++)
+                    out[o0 + k] += term.evaluate(xs[x0 + k]);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of terms
+     * @return number of terms
+     */
+    public int getSize() {
+        return (degree < 0 ? 0 : polynomialTerms()) + cosEnd + other.length;
+    }
+
+    /**
+     * Returns the number of non-zero coefficients of the polynomial.
+     */
+    private int polynomialTerms() {
+        int count = 0;
+        for (double c : poly)
+            if (c != 0)
+                count++;
+        return count;
+    }
+
+    /**
+     * Returns the degree of the polynomial formed by the integer Power terms
+     * @return degree, or -1 if there are none
+     */
+    public int getPolynomialDegree() {
+        return degree;
+    }
+
+    /**
+     * Task that halves a batch evaluation until each part is at most PARALLEL_THRESHOLD points.
+     */
+    private final class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] xs;
+        private final int xOffset;
+        private final double[] out;
+        private final int outOffset;
+        private final int length;
+
+        BatchTask(double[] xs, int xOffset, double[] out, int outOffset, int length) {
+            this.xs = xs;
+            this.xOffset = xOffset;
+            this.out = out;
+            this.outOffset = outOffset;
+            this.length = length;
+        }
+
+        protected void compute() {
+            if (length <= PARALLEL_THRESHOLD) {
+                evaluateSerial(xs, xOffset, out, outOffset, length);
+            } else {
+                int half = length >>> 1;
+                invokeAll(new BatchTask(xs, xOffset, out, outOffset, half),
+                          new BatchTask(xs, xOffset + half, out, outOffset + half, length - half));
+            }
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package function;
 
 import function.terms.*;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  *  Class Function
@@ -14,31 +19,215 @@ import java.util.LinkedList;
  *      a*cos(bx)
  *
  *  Contains a list of objects of the subclasses of 'Term', each of which represent one of the above forms.
+ *  The list is kept in a canonical form, so that the cost of evaluation matches the number of distinct terms:
+ *      like terms, of the same form and the same b, are merged by adding their coefficients,
+ *      terms whose coefficient is (or sums to) 0 are dropped,
+ *      a*e^(0x) and a*cos(0x) are stored as the constant a*x^0, and a*sin(0x) is dropped.
+ *  Terms are indexed by (form, b) in a hash table, so addTerm() merges in O(1), and derivative() and add(),
+ *  which are built with addTerm(), produce canonical functions too. Terms of any other subclass of 'Term'
+ *  are kept as they are, in the order they were added.
  *  Contains methods to evaluate, and return the nth derivative of the function object.
  *
+ *  A Function is either mutable, changed in place by addTerm(), removeTerm(), add() and clear(), or frozen.
+ *  A frozen Function, made by freeze(), plus() or a Builder, rejects those methods with an
+ *  UnsupportedOperationException and holds only frozen terms (see Term.freeze()). It never changes, so it can
+ *  be evaluated from many threads at once and cached without copying; its derivative cache is published
+ *  safely, and the derivatives it returns are frozen too. plus() combines functions into a new frozen Function
+ *  without changing either of them. The mutable methods are a thin layer over the same canonical term table.
+ *
+ *  Calls to evaluate() and derivative() are counted by FunctionMetrics when metrics are enabled.
+ *
  *  This class is intended to be used with the approximaton.Approximation methods for Newton's method and Bisection.
  *
  *  @author Aaron Anderson
  *          9/18/18
  */
 public class Function {
-    /** List of terms */
-    private LinkedList<Term> terms = new LinkedList<>();
+    /** Empty cache of derivatives */
+    private static final Function[] NO_DERIVATIVES = new Function[0];
+
+    /** Terms in the order they were added, keyed by (form, b) for the five known forms */
+    private final LinkedHashMap<Object, Term> terms;
+    /** Whether this function is frozen */
+    private final boolean frozen;
+    /**
+     * Cache of derivatives of a frozen function already computed, with derivatives[i] = derivative of order i + 1.
+     * The array is replaced rather than modified, so that it can be shared between threads.
+     * Mutable functions never fill it, since their terms may be changed through setA() and setB().
+     */
+    private volatile Function[] derivatives = NO_DERIVATIVES;
+    /** Compiled form of a frozen function, built on first use */
+    private volatile CompiledFunction compiled;
 
     /** Default constructor for an empty Function */
     public Function() {
+        this.terms = new LinkedHashMap<>();
+        this.frozen = false;
     }
     /** Constructor that initializes a Function with one term */
     public Function(Term term) {
-        terms.add(term);
+        this();
+        addTerm(term);
+    }
+
+    /**
+     * Constructor for a frozen Function that takes ownership of a table of terms, freezing each of them.
+     * Every term that is not already frozen must be owned by the table, never shared with another function.
+     */
+    private Function(LinkedHashMap<Object, Term> terms) {
+        for (Term term : terms.values())
+            term.freeze();
+        this.terms = terms;
+        this.frozen = true;
+    }
+
+    /**
+     * Returns a new Builder for a frozen Function.
+     * @return empty builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns whether this function is frozen, see freeze()
+     * @return whether this function is frozen
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Returns a frozen copy of this function, or this function if it is already frozen.
+     * Terms that are not already frozen are copied (see Term.copy()), so this function and its terms can still
+     * be changed afterwards.
+     * @return frozen function equal to this function
+     */
+    public Function freeze() {
+        if (frozen)
+            return this;
+        return new Function(copyTerms());
+    }
+
+    /**
+     * Returns a new frozen function equal to this function plus c*f, leaving both unchanged.
+     * @param f function to add
+     * @param c constant to multiply f by
+     * @return this + c*f
+     */
+    public Function plus(Function f, double c) {
+        Function sum = new Function();
+        sum.terms.putAll(copyTerms());
+        sum.addCopies(f, c);
+        return new Function(sum.terms);
+    }
+
+    /**
+     * Adds c*f to this mutable function without changing f or its terms, adding a scaled copy of each term.
+     */
+    private void addCopies(Function f, double c) {
+        for (Term term : new ArrayList<>(f.terms.values())) {
+            if (isKnown(term.getClass())) {
+                addTerm(newTerm(term.getClass(), term.getA() * c, term.getB()));
+            } else {
+                Term copy = term.copy();
+                copy.setA(term.getA() * c);
+                addTerm(copy);
+            }
+        }
+    }
+
+    /**
+     * Returns a copy of the term table, with copies of the terms that are not frozen, so that the copy owns
+     * every term it may freeze.
+     */
+    private LinkedHashMap<Object, Term> copyTerms() {
+        LinkedHashMap<Object, Term> copy = new LinkedHashMap<>();
+        for (Map.Entry<Object, Term> entry : terms.entrySet()) {
+            Term term = entry.getValue();
+            copy.put(entry.getKey(), term.isFrozen() ? term : term.copy());
+        }
+        return copy;
     }
 
     /**
-     * Adds a term to the terms list.
+     * Throws an UnsupportedOperationException if this function is frozen.
+     */
+    private void modify() {
+        if (frozen)
+            throw new UnsupportedOperationException("Function is frozen");
+    }
+
+    /**
+     * Adds a term to the terms list, merging it with a like term if there is one.
+     * A merged term is replaced by a new term, so terms passed to addTerm() are never modified by this function.
+     * Terms should not be modified after they are added, since their b decides which terms they merge with.
      * @param term  term to be added.
      */
     public void addTerm(Term term) {
-        terms.add(term);
+        modify();
+        term = normalize(term);
+        if (term == null)
+            return;
+        Object key = key(term);
+        Term like = terms.get(key);
+        if (like == null) {
+            terms.put(key, term);
+        } else {
+            double a = like.getA() + term.getA();
+            if (a == 0)
+                terms.remove(key);
+            else
+                terms.put(key, newTerm(like.getClass(), a, like.getB()));
+        }
+    }
+
+    /**
+     * Returns a term in canonical form, equal to the given term, or null if the term is zero.
+     */
+    private static Term normalize(Term term) {
+        Class<?> c = term.getClass();
+        if (!isKnown(c))
+            return term;
+        if (term.getA() == 0)
+            return null;
+        if (term.getB() == 0) {
+            if (c == Sin.class)
+                return null;
+            if (c == Exp.class || c == Cos.class)
+                return new Power(term.getA(), 0);
+        }
+        return term;
+    }
+
+    /**
+     * Returns whether terms of class c are one of the five known forms, which are merged.
+     * Subclasses of the forms may behave differently, so only the exact classes are known.
+     */
+    private static boolean isKnown(Class<?> c) {
+        return c == Power.class || c == Exp.class || c == Log.class || c == Sin.class || c == Cos.class;
+    }
+
+    /**
+     * Returns the key of a term in the table: (form, b) for the known forms, or a new object for any other term.
+     */
+    private static Object key(Term term) {
+        return isKnown(term.getClass()) ? new Key(term.getClass(), term.getB()) : new Object();
+    }
+
+    /**
+     * Returns a new term of a known form c with the given a and b.
+     */
+    private static Term newTerm(Class<?> c, double a, double b) {
+        if (c == Power.class)
+            return new Power(a, b);
+        if (c == Exp.class)
+            return new Exp(a, b);
+        if (c == Log.class)
+            return new Log(a, b);
+        if (c == Sin.class)
+            return new Sin(a, b);
+        return new Cos(a, b);
     }
 
     /**
@@ -46,7 +235,13 @@ public class Function {
      * @param index  index of the term to be removed.
      */
     public void removeTerm(int index) {
-        terms.remove(index);
+        modify();
+        Objects.checkIndex(index, terms.size());
+        Iterator<Term> it = terms.values().iterator();
+        for (int i = 0; i < index; i++)
+            it.next();
+        it.next();
+        it.remove();
     }
 
     /**
@@ -55,7 +250,39 @@ public class Function {
      * @return term at given index
      */
     public Term getTerm(int index) {
-        return terms.get(index);
+        Objects.checkIndex(index, terms.size());
+        Iterator<Term> it = terms.values().iterator();
+        for (int i = 0; i < index; i++)
+            it.next();
+        return it.next();
+    }
+
+    /**
+     * Returns the dense coefficients of this function as a polynomial, if every term is a*x^b with b a
+     * non-negative integer.
+     * @return array c of length degree + 1 with c[k] = coefficient of x^k, or of length 0 if there are no terms
+     * @throws IllegalArgumentException if a term is not a Power term with a non-negative integer exponent
+     */
+    public double[] getPolynomialCoefficients() {
+        int degree = -1;
+        for (Term term : terms.values()) {
+            double b = term.getB();
+            if (term.getClass() != Power.class || !(b >= 0) || b != Math.rint(b) || b >= Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Not a polynomial term: " + term);
+            degree = Math.max(degree, (int) b);
+        }
+        double[] c = new double[degree + 1];
+        for (Term term : terms.values())
+            c[(int) term.getB()] += term.getA();
+        return c;
+    }
+
+    /**
+     * Returns the terms list for iteration.
+     * @return terms list
+     */
+    Iterable<Term> terms() {
+        return terms.values();
     }
 
     /**
@@ -67,51 +294,186 @@ public class Function {
     }
 
     /**
-     * Returns function evaluated at a given x
+     * Returns function evaluated at a given x.
+     * A frozen function is evaluated through its cached compiled form, see compile(); a mutable function is
+     * evaluated term by term, since its terms may still change.
      * @param x to be evaluated
      * @return f(x)
      */
     public double evaluate(double x) {
+        if (FunctionMetrics.ENABLED)
+            FunctionMetrics.recordEvaluations(1);
+        if (frozen)
+            return compile().evaluate(x);
         double sum = 0;
-        for (int i = 0; i < terms.size(); i++)
-            sum += this.getTerm(i).evaluate(x);
+        for (Term term : terms.values())
+            sum += term.evaluate(x);
         return sum;
     }
 
     /**
-     * Adds a second function c*f to this function.
+     * Returns an enclosure of the range of this function over an interval of x: the sum of the enclosures of its
+     * terms, with outward rounding (see 'Interval' and Term.evaluate(Interval)). If the result does not contain
+     * zero, this function has no root in the interval. The enclosure may be much wider than the true range,
+     * but narrows as the interval does.
+     * @param x interval of x
+     * @return interval containing f(x) for every x in the interval
+     */
+    public Interval evaluate(Interval x) {
+        if (frozen)
+            return compile().evaluate(x);
+        Interval sum = Interval.point(0);
+        for (Term term : terms.values()) {
+            sum = sum.add(term.evaluate(x));
+            if (sum.isEntire())
+                break;
+        }
+        return sum;
+    }
+
+    /**
+     * Evaluates this function and its first derivative at a given x in one pass,
+     * storing f(x) in result[0] and f'(x) in result[1].
+     * Each term computes its value and derivative together, so no derivative Function is built.
+     * @param x      to be evaluated
+     * @param result array of length at least 2 to hold f(x) and f'(x)
+     */
+    public void evaluateWithDerivative(double x, double[] result) {
+        if (frozen) {
+            compile().evaluateWithDerivative(x, result);
+            return;
+        }
+        result[0] = 0;
+        result[1] = 0;
+        for (Term term : terms.values())
+            term.evaluateWithDerivative(x, result);
+    }
+
+    /**
+     * Evaluates this function and all of its derivatives up to order result.length - 1 at a given x in one pass,
+     * storing the jth derivative f^(j)(x) in result[j].
+     * Each term computes its derivatives from their closed form, so no derivative Function is built.
+     * @param x      to be evaluated
+     * @param result array to hold f(x), f'(x), ..., f^(result.length - 1)(x)
+     */
+    public void evaluateDerivatives(double x, double[] result) {
+        if (frozen) {
+            compile().evaluateDerivatives(x, result);
+            return;
+        }
+        Arrays.fill(result, 0);
+        for (Term term : terms.values())
+            term.evaluateDerivatives(x, result);
+    }
+
+    /**
+     * Evaluates this function at every point of xs, storing f(xs[i]) in out[i].
+     * @param xs  values of x
+     * @param out array to hold f(x), at least as long as xs
+     */
+    public void evaluate(double[] xs, double[] out) {
+        evaluate(xs, 0, out, 0, xs.length);
+    }
+
+    /**
+     * Evaluates this function at xs[xOffset] to xs[xOffset + length - 1],
+     * storing f(xs[xOffset + i]) in out[outOffset + i].
+     * The function is compiled once for the whole grid, see CompiledFunction.evaluate(double[], int, double[], int, int).
+     * @param xs        values of x
+     * @param xOffset   index of the first x
+     * @param out       array to hold f(x)
+     * @param outOffset index of the first f(x)
+     * @param length    number of points
+     */
+    public void evaluate(double[] xs, int xOffset, double[] out, int outOffset, int length) {
+        if (FunctionMetrics.ENABLED)
+            FunctionMetrics.recordEvaluations(length);
+        compile().evaluate(xs, xOffset, out, outOffset, length);
+    }
+
+    /**
+     * Returns an immutable evaluator for the current terms of this function.
+     * The coefficients are stored in flat arrays grouped by kind of term, and integer powers are gathered into
+     * a polynomial evaluated without Math.pow, so the result evaluates considerably faster than the terms do and
+     * should be preferred when a mutable function is evaluated many times.
+     * Later changes to this function are not reflected in the result. A frozen function compiles itself once
+     * and returns the same result every time.
+     * @return compiled form of this function
+     */
+    public CompiledFunction compile() {
+        if (!frozen)
+            return new CompiledFunction(this);
+        CompiledFunction c = compiled;
+        if (c == null)
+            compiled = c = new CompiledFunction(this);
+        return c;
+    }
+
+    /**
+     * Adds a second function c*f to this function, merging like terms.
+     * The terms of f are copied and scaled (see Term.copy()), so f and its terms are unchanged.
+     * See plus() for a form that changes neither function.
      * @param f to be evaluated
      * @param c constant to multiply f by
      */
     public void add(Function f, double c) {
-        for (int i = 0; i < f.getSize(); i++) {
-            f.getTerm(i).setA(f.getTerm(i).getA() * c);
-            this.addTerm(f.getTerm(i));
-        }
+        modify();
+        addCopies(f, c);
     }
 
     /**
      * Removes all terms from this function.
      */
     public void clear() {
+        modify();
         terms.clear();
     }
 
     /**
      * Returns the nth derivative of this function.
+     * A frozen function caches its derivatives, frozen, up to the highest order requested, and returns the cached
+     * derivative itself, so repeated calls return the same object. This method may then be called from many
+     * threads at once: threads that race to extend the cache may each compute the same derivatives, but every
+     * caller gets a correct result.
+     * A mutable function caches nothing, since its terms may be changed in place, and returns a new mutable
+     * derivative on every call. To differentiate the same function repeatedly, freeze() it first.
      * @param order Order of derivative to return
      */
     public Function derivative(int order) {
-        Function derivative = null;
-        Function temp = this;
+        if (FunctionMetrics.ENABLED)
+            FunctionMetrics.recordDerivative();
         if (order == 0)
             return this;
-        for (int j = 0; j < order; j++) {
-            derivative = new Function();
-            for (int i = 0; i < temp.getSize(); i++)
-                derivative.addTerm(temp.getTerm(i).derivative());
-            temp = derivative;
+        if (frozen)
+            return cachedDerivative(order);
+        Function derivative = differentiate(this);
+        for (int i = 1; i < order; i++)
+            derivative = differentiate(derivative);
+        return derivative;
+    }
+
+    /**
+     * Returns the frozen derivative of order at least 1 from the cache, extending the cache if needed.
+     */
+    private Function cachedDerivative(int order) {
+        Function[] cache = derivatives;
+        if (cache.length < order) {
+            int known = cache.length;
+            cache = Arrays.copyOf(cache, order);
+            for (int i = known; i < order; i++)
+                cache[i] = new Function(differentiate(i == 0 ? this : cache[i - 1]).terms);
+            derivatives = cache;
         }
+        return cache[order - 1];
+    }
+
+    /**
+     * Returns a new mutable function holding the derivatives of the terms of f, which are new terms.
+     */
+    private static Function differentiate(Function f) {
+        Function derivative = new Function();
+        for (Term term : f.terms.values())
+            derivative.addTerm(term.derivative());
         return derivative;
     }
 
@@ -121,8 +483,80 @@ public class Function {
      */
     public String toString() {
         String str = "";
-        for (int i = 0; i < terms.size(); i++)
-            str += this.getTerm(i).toString() + "\t";
+        for (Term term : terms.values())
+            str += term.toString() + "\t";
         return str;
     }
+
+    /**
+     * Builder for a frozen Function, which merges like terms as they are added, see Function.addTerm().
+     * A Builder is not thread-safe, and cannot be used again after build().
+     */
+    public static final class Builder {
+        private Function f = new Function();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a term to the function being built.
+         * @param term term to add
+         * @return this builder
+         */
+        public Builder addTerm(Term term) {
+            function().addTerm(term);
+            return this;
+        }
+
+        /**
+         * Adds c*g to the function being built, leaving g unchanged.
+         * @param g function to add
+         * @param c constant to multiply g by
+         * @return this builder
+         */
+        public Builder add(Function g, double c) {
+            function().addCopies(g, c);
+            return this;
+        }
+
+        /**
+         * Returns the frozen function built from the terms added so far.
+         * @return frozen function
+         */
+        public Function build() {
+            Function built = new Function(function().copyTerms());
+            f = null;
+            return built;
+        }
+
+        private Function function() {
+            if (f == null)
+                throw new IllegalStateException("Builder has already been built");
+            return f;
+        }
+    }
+
+    /**
+     * Key of a term of a known form: its class and its b, with -0.0 taken as 0.0.
+     */
+    private static final class Key {
+        private final Class<?> form;
+        private final double b;
+
+        Key(Class<?> form, double b) {
+            this.form = form;
+            this.b = b + 0.0;
+        }
+
+        public boolean equals(Object o) {
+            if (!(o instanceof Key))
+                return false;
+            Key k = (Key) o;
+            return form == k.form && Double.compare(b, k.b) == 0;
+        }
+
+        public int hashCode() {
+            return 31 * form.hashCode() + Double.hashCode(b);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,174 @@
+package function;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *  Class FunctionCache
+ *
+ *  A bounded, thread-safe, least-recently-used cache of parsed functions, keyed by their normalized expression.
+ *
+ *  get() parses an expression with FunctionParser the first time it is seen, freezes the result, and builds and
+ *  compiles its derivatives up to a fixed order before caching it. Since a frozen Function keeps its derivatives
+ *  and its compiled form (see Function.freeze()), later requests for a hot expression skip parsing and derivative
+ *  construction entirely, and the returned function can be shared by every thread.
+ *
+ *  Expressions are normalized by removing whitespace that does not separate two numbers or names, so that
+ *  "3x^2 - 1" and "3x^2-1" share an entry. The cache is split into segments by the hash of the key, each an
+ *  access-ordered LinkedHashMap with its own lock, so that threads looking up different expressions rarely
+ *  contend; each segment evicts its least recently used entry when it is full. Parsing happens outside the
+ *  lock, so two threads missing on the same expression at once may both parse it, and one result is kept.
+ */
+public class FunctionCache {
+    /** Number of segments */
+    private static final int SEGMENTS = 16;
+
+    /** Segments, each guarded by its own monitor */
+    private final Segment[] segments;
+    /** Highest order of derivative built for each cached function */
+    private final int derivativeOrder;
+    /** Number of lookups that found a cached function */
+    private final LongAdder hits = new LongAdder();
+    /** Number of lookups that parsed a function */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Constructor for FunctionCache given the number of functions to hold and the derivatives to prebuild.
+     * @param capacity          largest number of functions held (rounded up to a multiple of the number of segments)
+     * @param derivativeOrder   highest order of derivative built for each function, 0 for none
+     */
+    public FunctionCache(int capacity, int derivativeOrder) {
+        if (capacity < 1 || derivativeOrder < 0)
+            throw new IllegalArgumentException("capacity must be positive and derivativeOrder non-negative");
+        this.derivativeOrder = derivativeOrder;
+        this.segments = new Segment[SEGMENTS];
+        int perSegment = (capacity + SEGMENTS - 1) / SEGMENTS;
+        for (int i = 0; i < SEGMENTS; i++)
+            segments[i] = new Segment(perSegment);
+    }
+
+    /**
+     * Returns the frozen function for an expression, parsing it and building its derivatives if it is not cached.
+     * @param expression expression in the syntax of FunctionParser
+     * @return frozen function, shared with the cache
+     * @throws IllegalArgumentException if the expression is malformed
+     */
+    public Function get(String expression) {
+        String key = normalize(expression);
+        Segment segment = segments[(key.hashCode() & 0x7fffffff) % SEGMENTS];
+        Function f;
+        synchronized (segment) {
+            f = segment.get(key);
+        }
+        if (f != null) {
+            hits.increment();
+            return f;
+        }
+        misses.increment();
+        f = FunctionParser.parse(key).freeze();
+        f.compile();
+        for (int order = 1; order <= derivativeOrder; order++)
+            f.derivative(order).compile();
+        synchronized (segment) {
+            Function existing = segment.putIfAbsent(key, f);
+            return existing != null ? existing : f;
+        }
+    }
+
+    /**
+     * Returns a derivative of the function for an expression, see get().
+     * @param expression    expression in the syntax of FunctionParser
+     * @param order         order of derivative
+     * @return frozen derivative
+     */
+    public Function derivative(String expression, int order) {
+        return get(expression).derivative(order);
+    }
+
+    /**
+     * Returns an expression without whitespace, except for a single space where removing it would join two
+     * numbers or names.
+     * @param expression expression to normalize
+     * @return normalized expression
+     */
+    static String normalize(String expression) {
+        StringBuilder sb = new StringBuilder(expression.length());
+        boolean space = false;
+        for (int i = 0; i < expression.length(); i++) {
+            char c = expression.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = true;
+                continue;
+            }
+            if (space && sb.length() > 0 && isWordChar(sb.charAt(sb.length() - 1)) && isWordChar(c))
+                sb.append(' ');
+            space = false;
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '.';
+    }
+
+    /**
+     * Returns the number of functions held
+     * @return number of functions
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Removes every function from the cache.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of lookups that found a cached function
+     * @return number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that had to parse their expression
+     * @return number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * One segment of the cache: an access-ordered map that evicts its eldest entry when it is full.
+     */
+    private static final class Segment extends LinkedHashMap<String, Function> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        protected boolean removeEldestEntry(Map.Entry<String, Function> eldest) {
+            return size() > capacity;
+        }
+    }
+}
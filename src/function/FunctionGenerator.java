@@ -0,0 +1,270 @@
+package function;
+
+import function.terms.*;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.HashMap;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ *  Class FunctionGenerator
+ *
+ *  This class generates bytecode for a Function at runtime. The result is a hidden class implementing
+ *  DoubleUnaryOperator whose applyAsDouble(x) method is the straight-line sum of the terms, with every
+ *  coefficient a and b stored as a constant, e.g. for 3x^2 - x + 2sin(4x) + x^1.5:
+ *      return 0.0 + ((3.0 * x + -1.0) * x + 0.0) + 2.0 * Math.sin(4.0 * x) + 1.0 * Math.pow(x, 1.5);
+ *  As in CompiledFunction, Power terms with an integer exponent from 0 to CompiledFunction.MAX_POLYNOMIAL_DEGREE
+ *  are gathered into one polynomial, unrolled by Horner's rule so that it needs no call to Math.pow.
+ *  The JIT compiler can then fold the coefficients and inline the calls to Math, which makes the generated
+ *  operator the fastest way to evaluate a long-lived function many times.
+ *
+ *  Like Function.compile(), the generated operator is a snapshot of the function when it was generated.
+ *  If the class cannot be generated (for example, because the function contains a term that is not one of
+ *  Power, Exp, Log, Sin or Cos, or is too large for a single method), the compiled form of the function,
+ *  Function.compile(), is returned instead, which is a snapshot too.
+ */
+public final class FunctionGenerator {
+    /** Name of the generated class, which must be in the same package as this class */
+    private static final String CLASS_NAME = "function/GeneratedFunction";
+    /** Largest code length allowed for a method by the class file format */
+    private static final int MAX_CODE_LENGTH = 65535;
+
+    private FunctionGenerator() {
+    }
+
+    /**
+     * Returns a generated operator that evaluates f, or f.compile() if generation fails.
+     * @param f Function to generate
+     * @return operator evaluating f(x) as it is now
+     */
+    public static DoubleUnaryOperator generate(Function f) {
+        try {
+            byte[] bytes = classBytes(f);
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            return (DoubleUnaryOperator) lookup.lookupClass().getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | IllegalArgumentException | IOException e) {
+            return f.compile();
+        }
+    }
+
+    /**
+     * Returns a generated operator that evaluates the nth derivative of f, or its compiled form if generation fails.
+     * @param f     Function to generate
+     * @param order Order of derivative to generate
+     * @return operator evaluating f^(order)(x)
+     */
+    public static DoubleUnaryOperator generate(Function f, int order) {
+        return generate(f.derivative(order));
+    }
+
+    /**
+     * Returns the class file for a hidden class implementing DoubleUnaryOperator for f.
+     * The code is free of branches, so no StackMapTable is needed.
+     * @param f Function to generate
+     * @return class file bytes
+     * @throws IllegalArgumentException if f contains a term of an unknown kind or is too large
+     */
+    static byte[] classBytes(Function f) throws IOException {
+        ConstantPool pool = new ConstantPool();
+        int thisClass = pool.classRef(CLASS_NAME);
+        int superClass = pool.classRef("java/lang/Object");
+        int operator = pool.classRef("java/util/function/DoubleUnaryOperator");
+        int init = pool.utf8("<init>");
+        int voidDesc = pool.utf8("()V");
+        int apply = pool.utf8("applyAsDouble");
+        int applyDesc = pool.utf8("(D)D");
+        int code = pool.utf8("Code");
+        int objectInit = pool.methodRef("java/lang/Object", "<init>", "()V");
+
+        // applyAsDouble(x): local 0 = this, locals 1-2 = x
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(body);
+        out.writeByte(0x0e);                                     // dconst_0
+        double[] poly = polynomial(f);
+        if (poly.length > 0) {
+            out.writeByte(0x14);                                 // ldc2_w poly[degree]
+            out.writeShort(pool.doubleConst(poly[poly.length - 1]));
+            for (int k = poly.length - 2; k >= 0; k--) {
+                out.writeByte(0x27);                             // dload_1
+                out.writeByte(0x6b);                             // dmul
+                out.writeByte(0x14);                             // ldc2_w poly[k]
+                out.writeShort(pool.doubleConst(poly[k]));
+                out.writeByte(0x63);                             // dadd
+            }
+            out.writeByte(0x63);                                 // dadd
+        }
+        for (Term term : f.terms()) {
+            if (CompiledFunction.isPolynomial(term))
+                continue;
+            Class<?> c = term.getClass();
+            out.writeByte(0x14);                                 // ldc2_w a
+            out.writeShort(pool.doubleConst(term.getA()));
+            if (c == Power.class) {
+                out.writeByte(0x27);                             // dload_1
+                out.writeByte(0x14);                             // ldc2_w b
+                out.writeShort(pool.doubleConst(term.getB()));
+                out.writeByte(0xb8);                             // invokestatic Math.pow
+                out.writeShort(pool.methodRef("java/lang/Math", "pow", "(DD)D"));
+            } else {
+                String name;
+                if (c == Exp.class)
+                    name = "exp";
+                else if (c == Log.class)
+                    name = "log";
+                else if (c == Sin.class)
+                    name = "sin";
+                else if (c == Cos.class)
+                    name = "cos";
+                else
+                    throw new IllegalArgumentException("Cannot generate term " + term);
+                int method = pool.methodRef("java/lang/Math", name, "(D)D");
+                out.writeByte(0x14);                             // ldc2_w b
+                out.writeShort(pool.doubleConst(term.getB()));
+                out.writeByte(0x27);                             // dload_1
+                out.writeByte(0x6b);                             // dmul
+                out.writeByte(0xb8);                             // invokestatic Math.exp/log/sin/cos
+                out.writeShort(method);
+            }
+            out.writeByte(0x6b);                                 // dmul
+            out.writeByte(0x63);                                 // dadd
+        }
+        out.writeByte(0xaf);                                     // dreturn
+        byte[] applyCode = body.toByteArray();
+        if (applyCode.length > MAX_CODE_LENGTH)
+            throw new IllegalArgumentException("Function is too large to generate");
+
+        byte[] initCode = {
+                0x2a,                                            // aload_0
+                (byte) 0xb7, (byte) (objectInit >> 8), (byte) objectInit,   // invokespecial Object.<init>
+                (byte) 0xb1                                      // return
+        };
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream cls = new DataOutputStream(bytes);
+        cls.writeInt(0xCAFEBABE);
+        cls.writeShort(0);                                       // minor version
+        cls.writeShort(52);                                      // major version (Java 8)
+        pool.write(cls);
+        cls.writeShort(0x0031);                                  // ACC_PUBLIC | ACC_FINAL | ACC_SUPER
+        cls.writeShort(thisClass);
+        cls.writeShort(superClass);
+        cls.writeShort(1);
+        cls.writeShort(operator);
+        cls.writeShort(0);                                       // fields
+        cls.writeShort(2);                                       // methods
+        writeMethod(cls, init, voidDesc, code, 1, 1, initCode);
+        writeMethod(cls, apply, applyDesc, code, 8, 3, applyCode);
+        cls.writeShort(0);                                       // attributes
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Returns the coefficients of the Power terms of f with small integer exponents, with poly[k] the coefficient
+     * of x^k, or an empty array if there are none.
+     */
+    private static double[] polynomial(Function f) {
+        int degree = -1;
+        for (Term term : f.terms())
+            if (CompiledFunction.isPolynomial(term))
+                degree = Math.max(degree, (int) term.getB());
+        double[] poly = new double[degree + 1];
+        for (Term term : f.terms())
+            if (CompiledFunction.isPolynomial(term))
+                poly[(int) term.getB()] += term.getA();
+        return poly;
+    }
+
+    /**
+     * Writes a public method with a single Code attribute.
+     */
+    private static void writeMethod(DataOutputStream cls, int name, int descriptor, int code,
+                                    int maxStack, int maxLocals, byte[] bytecode) throws IOException {
+        cls.writeShort(0x0001);                                  // ACC_PUBLIC
+        cls.writeShort(name);
+        cls.writeShort(descriptor);
+        cls.writeShort(1);
+        cls.writeShort(code);
+        cls.writeInt(12 + bytecode.length);
+        cls.writeShort(maxStack);
+        cls.writeShort(maxLocals);
+        cls.writeInt(bytecode.length);
+        cls.write(bytecode);
+        cls.writeShort(0);                                       // exception table
+        cls.writeShort(0);                                       // attributes
+    }
+
+    /**
+     * Constant pool of the generated class, with each entry added only once.
+     */
+    private static final class ConstantPool {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final HashMap<Object, Integer> entries = new HashMap<>();
+        private int count = 1;
+
+        int utf8(String s) throws IOException {
+            Integer index = entries.get(s);
+            if (index != null)
+                return index;
+            out.writeByte(1);
+            out.writeUTF(s);
+            return add(s, 1);
+        }
+
+        int classRef(String name) throws IOException {
+            String key = "Class " + name;
+            Integer index = entries.get(key);
+            if (index != null)
+                return index;
+            int utf8 = utf8(name);
+            out.writeByte(7);
+            out.writeShort(utf8);
+            return add(key, 1);
+        }
+
+        int methodRef(String owner, String name, String descriptor) throws IOException {
+            String key = "Method " + owner + "." + name + descriptor;
+            Integer index = entries.get(key);
+            if (index != null)
+                return index;
+            int ownerClass = classRef(owner);
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            out.writeByte(12);
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+            int nameAndType = add(key + " NameAndType", 1);
+            out.writeByte(10);
+            out.writeShort(ownerClass);
+            out.writeShort(nameAndType);
+            return add(key, 1);
+        }
+
+        int doubleConst(double value) throws IOException {
+            // keyed by bits so that 0.0 and -0.0 (and NaNs) stay distinct
+            Long key = Double.doubleToRawLongBits(value);
+            Integer index = entries.get(key);
+            if (index != null)
+                return index;
+            out.writeByte(6);
+            out.writeDouble(value);
+            return add(key, 2);
+        }
+
+        private int add(Object key, int slots) {
+            if (count + slots > 65535)
+                throw new IllegalArgumentException("Function is too large to generate");
+            int index = count;
+            entries.put(key, index);
+            count += slots;
+            return index;
+        }
+
+        void write(DataOutputStream cls) throws IOException {
+            cls.writeShort(count);
+            cls.write(bytes.toByteArray());
+        }
+    }
+}
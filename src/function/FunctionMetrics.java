@@ -0,0 +1,65 @@
+package function;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *  Class FunctionMetrics
+ *
+ *  Optional counters of how often functions are evaluated and differentiated, for finding out where time goes.
+ *
+ *  Metrics are enabled by starting the JVM with -Dnumericalanalysis.metrics=true, which is read once when this
+ *  class is loaded. ENABLED is a static final field, so when it is false the JIT compiler removes the checks
+ *  guarding each counter and the instrumented methods cost nothing extra.
+ *  The counters are LongAdders, which stripe their cells across threads, so that batch and parallel evaluation
+ *  on many threads does not contend on a single counter.
+ *
+ *  The counts cover Function.evaluate() (one per point, including batches) and Function.derivative().
+ *  Evaluations through a CompiledFunction or a generated operator are not counted here; the solvers in
+ *  approximation count their own evaluations, see approximation.SolverMetrics.
+ */
+public final class FunctionMetrics {
+    /** Name of the system property that enables metrics */
+    public static final String PROPERTY = "numericalanalysis.metrics";
+    /** Whether metrics are collected, fixed when this class is loaded */
+    public static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    /** Number of points at which a Function has been evaluated */
+    private static final LongAdder EVALUATIONS = new LongAdder();
+    /** Number of calls to Function.derivative() */
+    private static final LongAdder DERIVATIVES = new LongAdder();
+
+    private FunctionMetrics() {
+    }
+
+    static void recordEvaluations(int points) {
+        EVALUATIONS.add(points);
+    }
+
+    static void recordDerivative() {
+        DERIVATIVES.increment();
+    }
+
+    /**
+     * Returns the number of points at which Function.evaluate() has been called since the last reset
+     * @return number of evaluations
+     */
+    public static long getEvaluations() {
+        return EVALUATIONS.sum();
+    }
+
+    /**
+     * Returns the number of calls to Function.derivative() since the last reset
+     * @return number of derivatives
+     */
+    public static long getDerivatives() {
+        return DERIVATIVES.sum();
+    }
+
+    /**
+     * Resets every counter to zero.
+     */
+    public static void reset() {
+        EVALUATIONS.reset();
+        DERIVATIVES.reset();
+    }
+}
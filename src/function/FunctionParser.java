@@ -0,0 +1,223 @@
+package function;
+
+import function.terms.*;
+
+/**
+ *  Class FunctionParser
+ *
+ *  This class parses a Function from a string that is a sum of terms of the forms of 'Term', for example
+ *      3x^2 - 2e^(0.5x) + sin(4x)
+ *  The syntax of each term, with an optional coefficient a (1 if omitted) and inner coefficient b:
+ *      a           a constant, a*x^0
+ *      a*x^b       also ax^b, ax^(b), ax^(-b), or ax for b = 1
+ *      a*e^(bx)    also ae^x
+ *      a*ln(bx)
+ *      a*sin(bx)
+ *      a*cos(bx)
+ *  where a "*" may be written between a coefficient and what it multiplies, numbers may use exponents
+ *  (1.5e-3) and may be NaN or Infinity, and each term after the first must be preceded by "+" or "-", so that
+ *  "3x2" or "2 3" are rejected rather than read as a sum. The only exception is a coefficient of NaN, which
+ *  toString() writes without a sign. Whitespace between tokens is ignored, so the toString() form of a Function,
+ *  e.g. "+3.0x^(2.0)\t-2.0e^(0.5x)\t+1.0sin(4.0x)\t", parses back to it.
+ *
+ *  The result is an ordinary mutable Function in canonical form, so like terms are merged as they are parsed.
+ *  Malformed input throws an IllegalArgumentException giving the position of the error.
+ *  See FunctionCache for parsing the same expressions many times.
+ */
+public final class FunctionParser {
+    /** Expression being parsed */
+    private final String s;
+    /** Position of the next character */
+    private int pos;
+
+    private FunctionParser(String s) {
+        this.s = s;
+    }
+
+    /**
+     * Parses a Function from an expression.
+     * @param expression sum of terms, as described above
+     * @return mutable function equal to the expression
+     * @throws IllegalArgumentException if the expression is malformed
+     */
+    public static Function parse(String expression) {
+        FunctionParser parser = new FunctionParser(expression);
+        Function f = new Function();
+        parser.skipWhitespace();
+        if (parser.atEnd())
+            throw parser.error("Empty expression");
+        f.addTerm(parser.term());
+        parser.skipWhitespace();
+        while (!parser.atEnd()) {
+            if (parser.peek() != '+' && parser.peek() != '-' && !parser.s.startsWith("NaN", parser.pos))
+                throw parser.error("Expected '+' or '-'");
+            f.addTerm(parser.term());
+            parser.skipWhitespace();
+        }
+        return f;
+    }
+
+    /**
+     * Parses one term, with its sign.
+     */
+    private Term term() {
+        double a = sign();
+        boolean coefficient = startsNumber();
+        if (coefficient) {
+            a *= number();
+            skipWhitespace();
+            if (accept('*'))
+                skipWhitespace();
+            else if (atEnd() || peek() == '+' || peek() == '-' || startsNumber())
+                return new Power(a, 0);
+        }
+        if (accept('x')) {
+            skipWhitespace();
+            double b = 1;
+            if (accept('^'))
+                b = exponent();
+            return new Power(a, b);
+        }
+        if (accept("e^")) {
+            skipWhitespace();
+            return new Exp(a, accept('x') ? 1 : argument());
+        }
+        if (accept("ln"))
+            return new Log(a, argument());
+        if (accept("sin"))
+            return new Sin(a, argument());
+        if (accept("cos"))
+            return new Cos(a, argument());
+        throw error(atEnd() ? "Expected a term" : "Unexpected '" + peek() + "'");
+    }
+
+    /**
+     * Parses any number of signs, returning -1 if there is an odd number of "-" and 1 otherwise.
+     */
+    private double sign() {
+        double sign = 1;
+        while (!atEnd() && (peek() == '+' || peek() == '-')) {
+            if (peek() == '-')
+                sign = -sign;
+            pos++;
+            skipWhitespace();
+        }
+        return sign;
+    }
+
+    /**
+     * Parses the exponent after "x^": a signed number, in parentheses or not.
+     */
+    private double exponent() {
+        skipWhitespace();
+        boolean parenthesized = accept('(');
+        skipWhitespace();
+        double b = sign();
+        if (!startsNumber())
+            throw error("Expected an exponent");
+        b *= number();
+        skipWhitespace();
+        if (parenthesized)
+            expect(')');
+        return b;
+    }
+
+    /**
+     * Parses a parenthesized linear argument "(bx)", returning b.
+     */
+    private double argument() {
+        skipWhitespace();
+        expect('(');
+        skipWhitespace();
+        double b = sign();
+        if (startsNumber()) {
+            b *= number();
+            skipWhitespace();
+            if (accept('*'))
+                skipWhitespace();
+        }
+        expect('x');
+        skipWhitespace();
+        expect(')');
+        return b;
+    }
+
+    /**
+     * Returns whether an unsigned number starts at the current position.
+     */
+    private boolean startsNumber() {
+        if (atEnd())
+            return false;
+        char c = peek();
+        if (Character.isDigit(c))
+            return true;
+        if (c == '.')
+            return pos + 1 < s.length() && Character.isDigit(s.charAt(pos + 1));
+        return s.startsWith("NaN", pos) || s.startsWith("Infinity", pos);
+    }
+
+    /**
+     * Parses an unsigned number. An "e" is only read as an exponent if digits follow, so that "2e^x" is 2*e^x.
+     */
+    private double number() {
+        if (accept("NaN"))
+            return Double.NaN;
+        if (accept("Infinity"))
+            return Double.POSITIVE_INFINITY;
+        int start = pos;
+        while (!atEnd() && (Character.isDigit(peek()) || peek() == '.'))
+            pos++;
+        if (!atEnd() && (peek() == 'e' || peek() == 'E')) {
+            int digits = pos + 1;
+            if (digits < s.length() && (s.charAt(digits) == '+' || s.charAt(digits) == '-'))
+                digits++;
+            if (digits < s.length() && Character.isDigit(s.charAt(digits))) {
+                pos = digits;
+                while (!atEnd() && Character.isDigit(peek()))
+                    pos++;
+            }
+        }
+        try {
+            return Double.parseDouble(s.substring(start, pos));
+        } catch (NumberFormatException e) {
+            pos = start;
+            throw error("Malformed number");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (!atEnd() && Character.isWhitespace(peek()))
+            pos++;
+    }
+
+    private boolean atEnd() {
+        return pos >= s.length();
+    }
+
+    private char peek() {
+        return s.charAt(pos);
+    }
+
+    private boolean accept(char c) {
+        if (atEnd() || peek() != c)
+            return false;
+        pos++;
+        return true;
+    }
+
+    private boolean accept(String token) {
+        if (!s.startsWith(token, pos))
+            return false;
+        pos += token.length();
+        return true;
+    }
+
+    private void expect(char c) {
+        if (!accept(c))
+            throw error("Expected '" + c + "'");
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + pos + " of \"" + s + "\"");
+    }
+}
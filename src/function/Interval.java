@@ -0,0 +1,241 @@
+package function;
+
+/**
+ *  Class Interval
+ *
+ *  This class is an immutable closed interval [lower, upper] of real numbers, with the arithmetic needed to
+ *  enclose the range of a Function over an interval, see Function.evaluate(Interval).
+ *
+ *  Every operation rounds outward: the lower bound of a result is rounded down and the upper bound up, by one
+ *  ulp for the correctly rounded operations + and *, and by two ulps for Math.exp(), log(), pow(), sin() and cos(),
+ *  which are only accurate to within one ulp. The result of an operation therefore always contains the exact
+ *  value of the operation at every point of its operands, at the price of being slightly wider.
+ *
+ *  Where an operation is undefined at some point of its operand, such as log() of an interval reaching zero or
+ *  below, or a negative power of an interval containing zero, the result is ENTIRE, the whole real line,
+ *  which encloses nothing useful but is never wrong. An enclosure that excludes zero proves that a function
+ *  has no root in the interval; ENTIRE never does.
+ */
+public final class Interval {
+    /** The whole real line, the result of any operation outside of its domain */
+    public static final Interval ENTIRE = new Interval(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+
+    private static final double TWO_PI = 2 * Math.PI;
+
+    /** Lower bound */
+    private final double lower;
+    /** Upper bound */
+    private final double upper;
+
+    /**
+     * Constructor for Interval given its bounds.
+     * @param lower lower bound
+     * @param upper upper bound, at least lower
+     * @throws IllegalArgumentException if a bound is NaN or lower &gt; upper
+     */
+    public Interval(double lower, double upper) {
+        if (!(lower <= upper))
+            throw new IllegalArgumentException("Invalid interval [" + lower + ", " + upper + "]");
+        this.lower = lower + 0.0;
+        this.upper = upper + 0.0;
+    }
+
+    /**
+     * Returns the interval [x, x].
+     * @param x the only point of the interval
+     * @return point interval
+     */
+    public static Interval point(double x) {
+        return new Interval(x, x);
+    }
+
+    /**
+     * Returns [lower, upper] rounded outward by ulps ulps, or ENTIRE if a bound is NaN.
+     */
+    private static Interval enclose(double lower, double upper, int ulps) {
+        if (Double.isNaN(lower) || Double.isNaN(upper))
+            return ENTIRE;
+        for (int i = 0; i < ulps; i++) {
+            lower = Math.nextDown(lower);
+            upper = Math.nextUp(upper);
+        }
+        return new Interval(lower, upper);
+    }
+
+    /**
+     * Returns the lower bound
+     * @return lower bound
+     */
+    public double getLower() {
+        return lower;
+    }
+
+    /**
+     * Returns the upper bound
+     * @return upper bound
+     */
+    public double getUpper() {
+        return upper;
+    }
+
+    /**
+     * Returns the width upper - lower, rounded up
+     * @return width
+     */
+    public double getWidth() {
+        return Math.nextUp(upper - lower);
+    }
+
+    /**
+     * Returns whether x lies in this interval
+     * @param x value of x
+     * @return whether lower &lt;= x &lt;= upper
+     */
+    public boolean contains(double x) {
+        return lower <= x && x <= upper;
+    }
+
+    /**
+     * Returns whether zero lies in this interval. If a function's enclosure over an interval does not contain zero,
+     * the function has no root there.
+     * @return whether lower &lt;= 0 &lt;= upper
+     */
+    public boolean containsZero() {
+        return lower <= 0 && 0 <= upper;
+    }
+
+    /**
+     * Returns whether this is the whole real line
+     * @return whether both bounds are infinite
+     */
+    public boolean isEntire() {
+        return lower == Double.NEGATIVE_INFINITY && upper == Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns an enclosure of x + y for x in this interval and y in another.
+     * @param other interval to add
+     * @return enclosure of the sum
+     */
+    public Interval add(Interval other) {
+        return enclose(lower + other.lower, upper + other.upper, 1);
+    }
+
+    /**
+     * Returns an enclosure of c*x for x in this interval.
+     * @param c constant to multiply by
+     * @return enclosure of the product
+     */
+    public Interval scale(double c) {
+        if (c == 1)
+            return this;
+        return c >= 0 ? enclose(c * lower, c * upper, 1) : enclose(c * upper, c * lower, 1);
+    }
+
+    /**
+     * Returns an enclosure of e^x for x in this interval, which is increasing.
+     * @return enclosure of e^x
+     */
+    public Interval exp() {
+        Interval e = enclose(Math.exp(lower), Math.exp(upper), 2);
+        return e.lower < 0 ? new Interval(0, e.upper) : e;
+    }
+
+    /**
+     * Returns an enclosure of ln(x) for x in this interval, which is increasing, or ENTIRE if the interval
+     * reaches zero or below.
+     * @return enclosure of ln(x)
+     */
+    public Interval log() {
+        if (!(lower > 0))
+            return ENTIRE;
+        return enclose(Math.log(lower), Math.log(upper), 2);
+    }
+
+    /**
+     * Returns an enclosure of x^e for x in this interval, as computed by Math.pow().
+     * On an interval of one sign x^e is monotonic, so the range lies between its values at the bounds;
+     * a positive even power of an interval containing zero has its minimum 0 there. The result is ENTIRE where
+     * x^e is undefined: for a negative integer e on an interval containing zero, and for a non-integer e on an
+     * interval reaching below zero.
+     * @param e exponent
+     * @return enclosure of x^e
+     */
+    public Interval pow(double e) {
+        if (e == 0)
+            return point(1);
+        if (Double.isNaN(e))
+            return ENTIRE;
+        boolean integer = e == Math.rint(e);
+        if (integer ? e < 0 && containsZero() : lower < 0)
+            return ENTIRE;
+        double p = Math.pow(lower, e);
+        double q = Math.pow(upper, e);
+        if (lower < 0 && upper > 0 && Math.abs(e % 2) == 0)
+            return enclose(0, Math.max(p, q), 2).intersectNonNegative();
+        Interval r = enclose(Math.min(p, q), Math.max(p, q), 2);
+        return lower >= 0 ? r.intersectNonNegative() : r;
+    }
+
+    /**
+     * Returns this interval with its lower bound raised to 0, for results that cannot be negative.
+     */
+    private Interval intersectNonNegative() {
+        return lower < 0 ? new Interval(0, upper) : this;
+    }
+
+    /**
+     * Returns an enclosure of sin(x) for x in this interval.
+     * The range lies between the values at the bounds, unless the interval reaches a maximum pi/2 + 2k*pi,
+     * where it extends to 1, or a minimum -pi/2 + 2k*pi, where it extends to -1.
+     * @return enclosure of sin(x)
+     */
+    public Interval sin() {
+        return periodic(Math.sin(lower), Math.sin(upper), Math.PI / 2, -Math.PI / 2);
+    }
+
+    /**
+     * Returns an enclosure of cos(x) for x in this interval, see sin(), with maxima 2k*pi and minima pi + 2k*pi.
+     * @return enclosure of cos(x)
+     */
+    public Interval cos() {
+        return periodic(Math.cos(lower), Math.cos(upper), 0, Math.PI);
+    }
+
+    /**
+     * Returns an enclosure of a function of period 2*pi and range [-1, 1] with values p and q at the bounds,
+     * and its maxima and minima at maximum + 2k*pi and minimum + 2k*pi.
+     */
+    private Interval periodic(double p, double q, double maximum, double minimum) {
+        if (!(upper - lower < TWO_PI))
+            return new Interval(-1, 1);
+        Interval r = enclose(Math.min(p, q), Math.max(p, q), 2);
+        double low = reaches(minimum) ? -1 : Math.max(r.lower, -1);
+        double high = reaches(maximum) ? 1 : Math.min(r.upper, 1);
+        return new Interval(low, high);
+    }
+
+    /**
+     * Returns whether this interval may contain a point phase + 2k*pi for an integer k.
+     * The points are only known to within a few ulps of the bounds, so points that close outside the interval
+     * are counted as inside it.
+     */
+    private boolean reaches(double phase) {
+        double slack = 8 * Math.ulp(Math.max(Math.max(Math.abs(lower), Math.abs(upper)), TWO_PI));
+        double k = Math.floor((lower - phase) / TWO_PI);
+        for (int i = 0; i < 3; i++) {
+            double c = phase + TWO_PI * (k + i);
+            if (c >= lower - slack && c <= upper + slack)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns a string representation of this interval.
+     * @return String representation of "[lower, upper]"
+     */
+    public String toString() {
+        return "[" + lower + ", " + upper + "]";
+    }
+}
@@ -1,10 +1,13 @@
 package function.terms;
 
+import function.Interval;
+
 /**
  *  Class Exp, extends Term
  *
  *  This class is used to symbolically represent functions of the form a*e^(bx).
- *  Contains implementations of evaluate() and derivative() methods.
+ *  Contains implementations of evaluate(), derivative(), evaluateWithDerivative(), evaluateDerivatives() and
+ *  evaluate(Interval) methods.
  *
  * @author Aaron Anderson
  *         9/17/18
@@ -34,7 +37,7 @@ public class Exp extends Term {
      * @param x value of x
      */
     public double evaluate(double x) {
-        return (a) * (Math.pow(Math.E, (b * x)));
+        return (a) * (Math.exp(b * x));
     }
 
     /**
@@ -45,6 +48,39 @@ public class Exp extends Term {
         return new Exp(this.getA() * this.getB(), this.getB());
     }
 
+    /**
+     * Adds a*e^(bx) to result[0] and ab*e^(bx) to result[1], sharing the exponential between them.
+     * @param x      value of x
+     * @param result array of length at least 2 to accumulate t(x) and t'(x) into
+     */
+    public void evaluateWithDerivative(double x, double[] result) {
+        double e = a * Math.exp(b * x);
+        result[0] += e;
+        result[1] += b * e;
+    }
+
+    /**
+     * Adds the jth derivative of a*e^(bx) = a*b^j*e^(bx) to result[j], sharing the exponential between them.
+     * @param x      value of x
+     * @param result array to accumulate t(x), t'(x), ..., t^(result.length - 1)(x) into
+     */
+    public void evaluateDerivatives(double x, double[] result) {
+        double e = a * Math.exp(b * x);
+        for (int j = 0; j < result.length; j++) {
+            result[j] += e;
+            e *= b;
+        }
+    }
+
+    /**
+     * Returns an enclosure of a*e^(bx) over an interval of x, which is monotonic.
+     * @param x interval of x
+     * @return interval containing t(x) for every x in the interval
+     */
+    public Interval evaluate(Interval x) {
+        return x.scale(b).exp().scale(a);
+    }
+
     /**
      * Returns String representation of this function
      * @return String representation of "ab*e^(bx)"
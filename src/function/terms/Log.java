@@ -1,10 +1,13 @@
 package function.terms;
 
+import function.Interval;
+
 /**
  *  Class Log, extends Term
  *
  *  This class is used to symbolically represent functions of the form a*ln(bx).
- *  Contains implementations of evaluate() and derivative() methods.
+ *  Contains implementations of evaluate(), derivative(), evaluateWithDerivative(), evaluateDerivatives() and
+ *  evaluate(Interval) methods.
  *
  * @author Aaron Anderson
  *         9/17/18
@@ -38,11 +41,46 @@ public class Log extends Term {
     }
 
     /**
-     * Returns derivative of a*ln(bx) = ab*x^(-1)
-     * @return Power ab*x^(-1)
+     * Returns derivative of a*ln(bx) = a*x^(-1)
+     * @return Power a*x^(-1)
      */
     public Term derivative() {
-        return new Power(this.getA()*this.getB(), -1);
+        return new Power(this.getA(), -1);
+    }
+
+    /**
+     * Adds a*ln(bx) to result[0] and a/x to result[1].
+     * @param x      value of x
+     * @param result array of length at least 2 to accumulate t(x) and t'(x) into
+     */
+    public void evaluateWithDerivative(double x, double[] result) {
+        result[0] += a * Math.log(b * x);
+        result[1] += a / x;
+    }
+
+    /**
+     * Adds a*ln(bx) to result[0], and the jth derivative a*(-1)^(j-1)*(j-1)!/x^j to result[j] for j >= 1.
+     * @param x      value of x
+     * @param result array to accumulate t(x), t'(x), ..., t^(result.length - 1)(x) into
+     */
+    public void evaluateDerivatives(double x, double[] result) {
+        if (result.length == 0)
+            return;
+        result[0] += a * Math.log(b * x);
+        double d = a / x;
+        for (int j = 1; j < result.length; j++) {
+            result[j] += d;
+            d *= -j / x;
+        }
+    }
+
+    /**
+     * Returns an enclosure of a*ln(bx) over an interval of x, which is monotonic, or the whole real line if bx reaches zero or below.
+     * @param x interval of x
+     * @return interval containing t(x) for every x in the interval
+     */
+    public Interval evaluate(Interval x) {
+        return x.scale(b).log().scale(a);
     }
 
     /**
@@ -1,10 +1,13 @@
 package function.terms;
 
+import function.Interval;
+
 /**
  *  Class Power, extends Term
  *
  *  This class is used to symbolically represent functions of the form a*x^b.
- *  Contains implementations of evaluate() and derivative() methods.
+ *  Contains implementations of evaluate(), derivative(), evaluateWithDerivative(), evaluateDerivatives() and
+ *  evaluate(Interval) methods.
  *
  * @author Aaron Anderson
  *         9/17/18
@@ -48,6 +51,49 @@ public class Power extends Term {
             return new Power(this.getA() * this.getB(), this.getB() - 1);
     }
 
+    /**
+     * Adds a*x^b to result[0] and ab*x^(b-1) to result[1], sharing the call to Math.pow between them.
+     * @param x      value of x
+     * @param result array of length at least 2 to accumulate t(x) and t'(x) into
+     */
+    public void evaluateWithDerivative(double x, double[] result) {
+        if (b == 0) {
+            result[0] += a * Math.pow(x, b);
+        } else if (x == 0) {
+            result[0] += a * Math.pow(x, b);
+            result[1] += a * b * Math.pow(x, b - 1);
+        } else {
+            double p = Math.pow(x, b - 1);
+            result[0] += a * p * x;
+            result[1] += a * b * p;
+        }
+    }
+
+    /**
+     * Adds the jth derivative of a*x^b = a*b(b-1)...(b-j+1)*x^(b-j) to result[j].
+     * Math.pow is called once, and each further power of x is found by dividing by x.
+     * @param x      value of x
+     * @param result array to accumulate t(x), t'(x), ..., t^(result.length - 1)(x) into
+     */
+    public void evaluateDerivatives(double x, double[] result) {
+        double coefficient = a;
+        double power = Math.pow(x, b);
+        for (int j = 0; j < result.length && coefficient != 0; j++) {
+            result[j] += coefficient * power;
+            coefficient *= b - j;
+            power = x == 0 ? Math.pow(x, b - j - 1) : power / x;
+        }
+    }
+
+    /**
+     * Returns an enclosure of a*x^b over an interval of x, which is monotonic on either side of zero.
+     * @param x interval of x
+     * @return interval containing t(x) for every x in the interval
+     */
+    public Interval evaluate(Interval x) {
+        return x.pow(b).scale(a);
+    }
+
     /**
      * Returns String representation of this function
      * @return String representation of "a*x^b"
@@ -1,10 +1,13 @@
 package function.terms;
 
+import function.Interval;
+
 /**
  *  Class Sin, extends Term
  *
  *  This class is used to symbolically represent functions of the form a*sin(bx).
- *  Contains implementations of evaluate() and derivative() methods.
+ *  Contains implementations of evaluate(), derivative(), evaluateWithDerivative(), evaluateDerivatives() and
+ *  evaluate(Interval) methods.
  *
  * @author Aaron Anderson
  *         9/17/18
@@ -45,6 +48,47 @@ public class Sin extends Term {
         return new Cos(this.getA() * this.getB(), this.getB());
     }
 
+    /**
+     * Adds a*sin(bx) to result[0] and ab*cos(bx) to result[1], sharing the product bx between them.
+     * @param x      value of x
+     * @param result array of length at least 2 to accumulate t(x) and t'(x) into
+     */
+    public void evaluateWithDerivative(double x, double[] result) {
+        double bx = b * x;
+        result[0] += a * Math.sin(bx);
+        result[1] += a * b * Math.cos(bx);
+    }
+
+    /**
+     * Adds the jth derivative of a*sin(bx) to result[j], which cycles through
+     * ab^j*sin(bx), ab^j*cos(bx), -ab^j*sin(bx), -ab^j*cos(bx).
+     * @param x      value of x
+     * @param result array to accumulate t(x), t'(x), ..., t^(result.length - 1)(x) into
+     */
+    public void evaluateDerivatives(double x, double[] result) {
+        double s = Math.sin(b * x);
+        double c = result.length > 1 ? Math.cos(b * x) : 0;
+        double scale = a;
+        for (int j = 0; j < result.length; j++) {
+            switch (j & 3) {
+                case 0: result[j] += scale * s; break;
+                case 1: result[j] += scale * c; break;
+                case 2: result[j] -= scale * s; break;
+                default: result[j] -= scale * c; break;
+            }
+            scale *= b;
+        }
+    }
+
+    /**
+     * Returns an enclosure of a*sin(bx) over an interval of x, which reaches |a| at the extrema of sin(bx) inside the interval.
+     * @param x interval of x
+     * @return interval containing t(x) for every x in the interval
+     */
+    public Interval evaluate(Interval x) {
+        return x.scale(b).sin().scale(a);
+    }
+
     /**
      * Returns String representation of this function
      * @return String representation of "a*sin(bx)"
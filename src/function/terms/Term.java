@@ -1,5 +1,7 @@
 package function.terms;
 
+import function.Interval;
+
 /**
  *  Abstract Class Term
  *
@@ -11,17 +13,28 @@ package function.terms;
  *      a*cos(bx)
  *
  *  Contains abstract methods to evaluate and differentiate which are implemented by its subclasses.
+ *  evaluateWithDerivative() evaluates a term and its derivative together, like forward-mode automatic
+ *  differentiation with dual numbers, and is overridden by the subclasses to share work between the two.
+ *  evaluateDerivatives() extends this to every derivative up to a given order, like truncated Taylor arithmetic.
+ *  evaluate(Interval) encloses the range of a term over an interval, with outward rounding (see 'Interval').
+ *
+ *  freeze() makes a term immutable: its mutators then throw an UnsupportedOperationException, so a frozen term
+ *  can be shared between threads and functions. Frozen functions hold only frozen terms, see Function.freeze().
+ *  copy() returns a mutable copy of a term of any subclass, so that functions never need to change or freeze
+ *  a term they do not own.
  *
  * @author Aaron Anderson
  *         9/17/18
  */
-public abstract class Term {
+public abstract class Term implements Cloneable {
     /** Coefficient variable a */
     double a;
     /** Auxiliary variable b (either power or inner coefficient) */
     double b;
     /** Boolean for tracking trig functions */
     boolean trig;
+    /** Whether this term is frozen */
+    private boolean frozen;
 
     /**
      * Returns the value of this term at x
@@ -34,11 +47,49 @@ public abstract class Term {
      * @return t'(x)
      */
     public abstract Term derivative();
+    /**
+     * Adds the value of this term at x to result[0], and the value of its derivative at x to result[1].
+     * This default evaluates derivative() separately; subclasses compute both in one pass without allocating.
+     * @param x      value of x
+     * @param result array of length at least 2 to accumulate t(x) and t'(x) into
+     */
+    public void evaluateWithDerivative(double x, double[] result) {
+        result[0] += evaluate(x);
+        result[1] += derivative().evaluate(x);
+    }
+    /**
+     * Adds the value of the jth derivative of this term at x to result[j], for j = 0 ... result.length - 1.
+     * This default builds each derivative with derivative(); subclasses compute them all in one pass from
+     * the closed form of the jth derivative, without allocating.
+     * @param x      value of x
+     * @param result array to accumulate t(x), t'(x), ..., t^(result.length - 1)(x) into
+     */
+    public void evaluateDerivatives(double x, double[] result) {
+        Term term = this;
+        for (int j = 0; j < result.length; j++) {
+            if (j > 0)
+                term = term.derivative();
+            result[j] += term.evaluate(x);
+        }
+    }
+    /**
+     * Returns an enclosure of the values of this term over an interval of x.
+     * This default knows nothing of the form of the term, except that a trig term a*f(bx) lies in [-|a|, |a|],
+     * and returns the whole real line otherwise; subclasses use the monotonicity or the extrema of their form.
+     * @param x interval of x
+     * @return interval containing t(x) for every x in the interval
+     */
+    public Interval evaluate(Interval x) {
+        if (isTrig() && !Double.isNaN(a))
+            return new Interval(-Math.abs(a), Math.abs(a));
+        return Interval.ENTIRE;
+    }
     /**
      * mutator for coefficient variable a
      * @param a coefficient variable
      */
     public void setA(double a) {
+        checkNotFrozen();
         this.a = a;
     }
     /**
@@ -46,8 +97,47 @@ public abstract class Term {
      * @param b auxiliary variable
      */
     public void setB(double b) {
+        checkNotFrozen();
         this.b = b;
     }
+    /**
+     * Makes this term immutable, so that setA() and setB() throw an UnsupportedOperationException.
+     * A frozen term must be safely published (for example, through a frozen Function) before it is shared
+     * between threads. Subclasses with mutable state of their own should check isFrozen() in their mutators.
+     * @return this term
+     */
+    public Term freeze() {
+        frozen = true;
+        return this;
+    }
+    /**
+     * Returns a mutable copy of this term, of the same class.
+     * The copy is shallow: subclasses with mutable state of their own should override this method to copy it.
+     * @return copy of this term that is not frozen
+     */
+    public Term copy() {
+        try {
+            Term copy = (Term) super.clone();
+            copy.frozen = false;
+            return copy;
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
+    /**
+     * Returns whether this term is frozen
+     * @return Whether this term is frozen
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+    /**
+     * Throws an UnsupportedOperationException if this term is frozen.
+     */
+    protected void checkNotFrozen() {
+        if (frozen)
+            throw new UnsupportedOperationException("Term is frozen");
+    }
     /**
      * Returns whether this term is a trig function
      * @return Whether this term is a trig function
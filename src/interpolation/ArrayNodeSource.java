@@ -0,0 +1,37 @@
+package interpolation;
+
+/**
+ *  Class ArrayNodeSource, implements NodeSource
+ *
+ *  A NodeSource backed by an on-heap array of nodes in the layout used by InterpolatingPolynomial,
+ *  with x-values in nodes[0] and y-values in nodes[1]. The array is not copied.
+ */
+public final class ArrayNodeSource implements NodeSource {
+    /** x-values of the nodes */
+    private final double[] x;
+    /** y-values of the nodes */
+    private final double[] y;
+
+    /**
+     * Constructor for ArrayNodeSource given the nodes as an array.
+     * @param nodes array of nodes, with nodes[0] = x-values and nodes[1] = y-values
+     */
+    public ArrayNodeSource(double[][] nodes) {
+        if (nodes[0].length != nodes[1].length)
+            throw new IllegalArgumentException("There must be one y-value per x-value");
+        this.x = nodes[0];
+        this.y = nodes[1];
+    }
+
+    public int size() {
+        return x.length;
+    }
+
+    public double x(int i) {
+        return x[i];
+    }
+
+    public double y(int i) {
+        return y[i];
+    }
+}
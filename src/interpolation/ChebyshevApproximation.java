@@ -0,0 +1,243 @@
+package interpolation;
+
+import function.CompiledFunction;
+import function.Function;
+
+/**
+ *  Class ChebyshevApproximation
+ *
+ *  Represents a Function on an interval [a, b] by a truncated Chebyshev series
+ *      P(x) = SUM(c_k * T_k(t)),  t = (2x - a - b) / (b - a)
+ *  which is a compact, fast and stable surrogate for a function that is expensive to evaluate.
+ *
+ *  The function is sampled at the n + 1 Chebyshev points t_j = cos(j*pi/n), and the coefficients are found from
+ *  the samples by a discrete cosine transform, computed with a fast Fourier transform in O(n log n).
+ *  The degree is chosen adaptively: n is doubled until the trailing coefficients are negligible relative to the
+ *  largest one, and each doubling only samples the new points, since every t_j of the coarser grid is also a
+ *  point of the finer one. Trailing coefficients below the tolerance are then dropped.
+ *
+ *  evaluate() uses the Clenshaw recurrence, which costs O(degree) per point and is numerically stable.
+ */
+public class ChebyshevApproximation {
+    /** Default tolerance, relative to the largest coefficient */
+    public static final double DEFAULT_TOLERANCE = 1e-14;
+    /** Number of intervals of the first grid of Chebyshev points */
+    private static final int MIN_POINTS = 16;
+    /** Largest number of intervals of the grid of Chebyshev points */
+    public static final int MAX_POINTS = 1 << 16;
+
+    /** Lower bound of the interval */
+    private final double a;
+    /** Upper bound of the interval */
+    private final double b;
+    /** Whether the trailing coefficients fell below the tolerance before MAX_POINTS was reached */
+    private final boolean converged;
+    /**
+     * Holds the Chebyshev coefficients, with coefficients[k] the coefficient of T_k.
+     */
+    public double[] coefficients;
+
+    /**
+     * Constructor for ChebyshevApproximation of f on [a, b] to DEFAULT_TOLERANCE.
+     * @param f Function to approximate
+     * @param a Lower bound of interval
+     * @param b Upper bound of interval
+     */
+    public ChebyshevApproximation(Function f, double a, double b) {
+        this(f, a, b, DEFAULT_TOLERANCE);
+    }
+
+    /**
+     * Constructor for ChebyshevApproximation of f on [a, b] to a given tolerance.
+     * @param f         Function to approximate
+     * @param a         Lower bound of interval
+     * @param b         Upper bound of interval
+     * @param tolerance Accuracy relative to the largest coefficient
+     */
+    public ChebyshevApproximation(Function f, double a, double b, double tolerance) {
+        this.a = a;
+        this.b = b;
+        CompiledFunction g = f.compile();
+
+        int n = MIN_POINTS;
+        double[] samples = new double[n + 1];
+        for (int j = 0; j <= n; j++)
+            samples[j] = g.evaluate(point(j, n));
+
+        double[] c = chebyshevCoefficients(samples);
+        while (!isResolved(c, tolerance) && n < MAX_POINTS) {
+            double[] finer = new double[2 * n + 1];
+            for (int j = 0; j <= n; j++)
+                finer[2 * j] = samples[j];
+            for (int j = 1; j < 2 * n; j += 2)
+                finer[j] = g.evaluate(point(j, 2 * n));
+            samples = finer;
+            n *= 2;
+            c = chebyshevCoefficients(samples);
+        }
+        this.converged = isResolved(c, tolerance);
+        this.coefficients = truncate(c, tolerance);
+    }
+
+    /**
+     * Constructor for ChebyshevApproximation on [a, b] given the coefficients.
+     * @param coefficients  coefficients of T_0, T_1, ...
+     * @param a             Lower bound of interval
+     * @param b             Upper bound of interval
+     */
+    public ChebyshevApproximation(double[] coefficients, double a, double b) {
+        this.a = a;
+        this.b = b;
+        this.coefficients = coefficients;
+        this.converged = true;
+    }
+
+    /**
+     * Returns the jth Chebyshev point of a grid of n intervals, mapped from [-1, 1] to [a, b].
+     */
+    private double point(int j, int n) {
+        return (a + b) / 2 + (b - a) / 2 * Math.cos(Math.PI * j / n);
+    }
+
+    /**
+     * Returns whether the last eighth (at least two) of the coefficients are below tolerance times the largest.
+     */
+    private static boolean isResolved(double[] c, double tolerance) {
+        double scale = maxAbs(c, 0, c.length);
+        int tail = Math.max(2, c.length / 8);
+        return maxAbs(c, c.length - tail, c.length) <= tolerance * scale;
+    }
+
+    /**
+     * Returns c without its trailing coefficients below tolerance times the largest (keeping at least one).
+     */
+    private static double[] truncate(double[] c, double tolerance) {
+        double cutoff = tolerance * maxAbs(c, 0, c.length);
+        int length = c.length;
+        while (length > 1 && Math.abs(c[length - 1]) <= cutoff)
+            length--;
+        double[] result = new double[length];
+        System.arraycopy(c, 0, result, 0, length);
+        return result;
+    }
+
+    private static double maxAbs(double[] c, int from, int to) {
+        double max = 0;
+        for (int k = from; k < to; k++)
+            max = Math.max(max, Math.abs(c[k]));
+        return max;
+    }
+
+    /**
+     * Returns the Chebyshev coefficients of the polynomial through samples f_j at t_j = cos(j*pi/n), j = 0 ... n,
+     * where n is a power of 2. This is a type-I discrete cosine transform, computed as the FFT of the even extension
+     *      v = (f_0, f_1, ..., f_n, f_(n-1), ..., f_1)
+     * of length 2n: c_k = Re(V_k) / n, with c_0 and c_n halved.
+     * @param samples   values at the n + 1 Chebyshev points
+     * @return  n + 1 Chebyshev coefficients
+     */
+    static double[] chebyshevCoefficients(double[] samples) {
+        int n = samples.length - 1;
+        double[] re = new double[2 * n];
+        double[] im = new double[2 * n];
+        for (int j = 0; j <= n; j++)
+            re[j] = samples[j];
+        for (int j = 1; j < n; j++)
+            re[2 * n - j] = samples[j];
+        fft(re, im);
+
+        double[] c = new double[n + 1];
+        for (int k = 0; k <= n; k++)
+            c[k] = re[k] / n;
+        c[0] /= 2;
+        c[n] /= 2;
+        return c;
+    }
+
+    /**
+     * Replaces (re, im) with its discrete Fourier transform, using the iterative radix-2 Cooley-Tukey algorithm.
+     * @param re    real parts, of a length that is a power of 2
+     * @param im    imaginary parts, of the same length
+     */
+    static void fft(double[] re, double[] im) {
+        int n = re.length;
+        for (int i = 1, j = 0; i < n; i++) {
+            int bit = n >> 1;
+            for (; (j & bit) != 0; bit >>= 1)
+                j ^= bit;
+            j ^= bit;
+            if (i < j) {
+                double t = re[i]; re[i] = re[j]; re[j] = t;
+                t = im[i]; im[i] = im[j]; im[j] = t;
+            }
+        }
+        for (int length = 2; length <= n; length <<= 1) {
+            double angle = -2 * Math.PI / length;
+            int half = length >> 1;
+            for (int k = 0; k < half; k++) {
+                double wr = Math.cos(angle * k);
+                double wi = Math.sin(angle * k);
+                for (int i = k; i < n; i += length) {
+                    int j = i + half;
+                    double xr = re[j] * wr - im[j] * wi;
+                    double xi = re[j] * wi + im[j] * wr;
+                    re[j] = re[i] - xr;
+                    im[j] = im[i] - xi;
+                    re[i] += xr;
+                    im[i] += xi;
+                }
+            }
+        }
+    }
+
+    /**
+     * Evaluates the Chebyshev series at a given x with the Clenshaw recurrence
+     *      b_k = c_k + 2t*b_(k+1) - b_(k+2),   P(x) = c_0 + t*b_1 - b_2
+     * @param x value of x, normally in [a, b].
+     * @return P(x)
+     */
+    public double evaluate(double x) {
+        double t = (2 * x - a - b) / (b - a);
+        double b1 = 0;
+        double b2 = 0;
+        for (int k = coefficients.length - 1; k >= 1; k--) {
+            double bk = coefficients[k] + 2 * t * b1 - b2;
+            b2 = b1;
+            b1 = bk;
+        }
+        return coefficients[0] + t * b1 - b2;
+    }
+
+    /**
+     * Returns the degree of the series, after truncation
+     * @return degree
+     */
+    public int getDegree() {
+        return coefficients.length - 1;
+    }
+
+    /**
+     * Returns whether the trailing coefficients fell below the tolerance before MAX_POINTS samples were needed.
+     * If not, the function is probably not smooth on [a, b] and the approximation may be poor.
+     * @return whether the approximation converged
+     */
+    public boolean isConverged() {
+        return converged;
+    }
+
+    /**
+     * Returns the lower bound of the interval
+     * @return a
+     */
+    public double getA() {
+        return a;
+    }
+
+    /**
+     * Returns the upper bound of the interval
+     * @return b
+     */
+    public double getB() {
+        return b;
+    }
+}
@@ -0,0 +1,369 @@
+package interpolation;
+
+/**
+ *  Class CubicSpline
+ *
+ *  Represents a piecewise cubic interpolant through nodes x_0 < x_1 < ... < x_(n-1), which unlike a global
+ *  interpolating polynomial stays well behaved for any number of nodes. On each interval [x_i, x_(i+1)] it is
+ *  the cubic Hermite polynomial matching y_i, y_(i+1) and the slopes d_i, d_(i+1), so a spline is stored as its
+ *  nodes plus one slope per node. The kind of spline decides the slopes:
+ *      natural()   twice continuously differentiable, with S''(x_0) = S''(x_(n-1)) = 0
+ *      clamped()   twice continuously differentiable, with S'(x_0) and S'(x_(n-1)) given
+ *      monotone()  once continuously differentiable and shape preserving (PCHIP): it is monotone wherever
+ *                  the data are, and never overshoots
+ *  Natural and clamped slopes are found by solving a tridiagonal system in O(n); monotone slopes are local.
+ *
+ *  evaluate() finds the interval holding x by binary search, or directly if the nodes are uniformly spaced.
+ *  evaluateSorted() evaluates ascending x-values by advancing one cursor through the intervals instead.
+ *  Values outside [x_0, x_(n-1)] are extrapolated from the first or last cubic.
+ *
+ *  The nodes are read through a NodeSource and are never copied, so the nodes of a spline over a MappedNodeSource
+ *  (16 bytes per node) stay off the heap, both while it is fitted and while it is queried. The slopes are not:
+ *  they are held on the heap (8 bytes per node), and natural() and clamped() need as much again as scratch space
+ *  while they solve for them. Fitting therefore still needs 8 bytes of heap per node for monotone() and 16 for
+ *  natural() and clamped(), and a spline keeps 8 bytes per node once it is fitted.
+ */
+public class CubicSpline {
+    /** Relative tolerance for treating the nodes as uniformly spaced */
+    private static final double UNIFORM_TOLERANCE = 1e-12;
+
+    /** Nodes, with strictly increasing x-values */
+    private final NodeSource nodes;
+    /** Slope of the spline at each node */
+    private final double[] slopes;
+    /** 1 / spacing if the nodes are uniformly spaced, or 0 otherwise */
+    private final double inverseSpacing;
+
+    /**
+     * Constructor for CubicSpline given the nodes and the slope at each node.
+     * @param nodes     source of nodes
+     * @param slopes    slope at each node
+     */
+    public CubicSpline(NodeSource nodes, double[] slopes) {
+        checkNodes(nodes);
+        if (slopes.length != nodes.size())
+            throw new IllegalArgumentException("There must be one slope per node");
+        this.nodes = nodes;
+        this.slopes = slopes;
+        this.inverseSpacing = uniformInverseSpacing(nodes);
+    }
+
+    /**
+     * Constructor for CubicSpline given the nodes as an array and the slope at each node.
+     * @param nodes     array of nodes, with nodes[0] = x-values and nodes[1] = y-values
+     * @param slopes    slope at each node
+     */
+    public CubicSpline(double[][] nodes, double[] slopes) {
+        this(new ArrayNodeSource(nodes), slopes);
+    }
+
+    /**
+     * Returns the natural cubic spline through the nodes, with S'' = 0 at both ends.
+     * @param nodes array of at least 2 nodes, with nodes[0] = x-values (strictly increasing) and nodes[1] = y-values
+     * @return natural cubic spline
+     */
+    public static CubicSpline natural(double[][] nodes) {
+        return natural(new ArrayNodeSource(nodes));
+    }
+
+    /**
+     * Returns the natural cubic spline through the nodes, with S'' = 0 at both ends.
+     * @param nodes source of at least 2 nodes, with strictly increasing x-values
+     * @return natural cubic spline
+     */
+    public static CubicSpline natural(NodeSource nodes) {
+        checkNodes(nodes);
+        return new CubicSpline(nodes, splineSlopes(nodes, Double.NaN, Double.NaN));
+    }
+
+    /**
+     * Returns the clamped cubic spline through the nodes, with the given slopes at both ends.
+     * @param nodes         array of at least 2 nodes, with nodes[0] = x-values (strictly increasing) and nodes[1] = y-values
+     * @param startSlope    S'(x_0)
+     * @param endSlope      S'(x_(n-1))
+     * @return clamped cubic spline
+     */
+    public static CubicSpline clamped(double[][] nodes, double startSlope, double endSlope) {
+        return clamped(new ArrayNodeSource(nodes), startSlope, endSlope);
+    }
+
+    /**
+     * Returns the clamped cubic spline through the nodes, with the given slopes at both ends.
+     * @param nodes         source of at least 2 nodes, with strictly increasing x-values
+     * @param startSlope    S'(x_0)
+     * @param endSlope      S'(x_(n-1))
+     * @return clamped cubic spline
+     */
+    public static CubicSpline clamped(NodeSource nodes, double startSlope, double endSlope) {
+        checkNodes(nodes);
+        return new CubicSpline(nodes, splineSlopes(nodes, startSlope, endSlope));
+    }
+
+    /**
+     * Returns the monotone piecewise cubic Hermite interpolant (PCHIP) through the nodes.
+     * Interior slopes are the weighted harmonic mean of the neighbouring secant slopes, or 0 at a local extremum
+     * (Fritsch-Butland); end slopes use a one-sided three-point formula limited to preserve shape.
+     * @param nodes array of at least 2 nodes, with nodes[0] = x-values (strictly increasing) and nodes[1] = y-values
+     * @return monotone cubic spline
+     */
+    public static CubicSpline monotone(double[][] nodes) {
+        return monotone(new ArrayNodeSource(nodes));
+    }
+
+    /**
+     * Returns the monotone piecewise cubic Hermite interpolant (PCHIP) through the nodes,
+     * see monotone(double[][]).
+     * @param nodes source of at least 2 nodes, with strictly increasing x-values
+     * @return monotone cubic spline
+     */
+    public static CubicSpline monotone(NodeSource nodes) {
+        checkNodes(nodes);
+        int n = nodes.size();
+        double[] d = new double[n];
+        if (n == 2) {
+            d[0] = d[1] = (nodes.y(1) - nodes.y(0)) / (nodes.x(1) - nodes.x(0));
+            return new CubicSpline(nodes, d);
+        }
+
+        double h0 = nodes.x(1) - nodes.x(0);
+        double delta0 = (nodes.y(1) - nodes.y(0)) / h0;
+        double h1 = 0;
+        double delta1 = 0;
+        double firstH = h0;
+        double firstDelta = delta0;
+        double secondH = 0;
+        double secondDelta = 0;
+        for (int i = 1; i < n - 1; i++) {
+            h1 = nodes.x(i + 1) - nodes.x(i);
+            delta1 = (nodes.y(i + 1) - nodes.y(i)) / h1;
+            if (i == 1) {
+                secondH = h1;
+                secondDelta = delta1;
+            }
+            if (delta0 * delta1 > 0) {
+                double w1 = 2 * h1 + h0;
+                double w2 = h1 + 2 * h0;
+                d[i] = (w1 + w2) / (w1 / delta0 + w2 / delta1);
+            }
+            if (i < n - 2) {
+                h0 = h1;
+                delta0 = delta1;
+            }
+        }
+        // after the loop, (h1, delta1) is the last interval and (h0, delta0) the one before it
+        d[0] = endSlope(firstH, secondH, firstDelta, secondDelta);
+        d[n - 1] = endSlope(h1, h0, delta1, delta0);
+        return new CubicSpline(nodes, d);
+    }
+
+    /**
+     * Returns the shape-preserving slope at an end node, from the three-point formula on the end interval
+     * (width h0, secant slope delta0) and its neighbour (width h1, secant slope delta1).
+     */
+    private static double endSlope(double h0, double h1, double delta0, double delta1) {
+        double d = ((2 * h0 + h1) * delta0 - h0 * delta1) / (h0 + h1);
+        if (Math.signum(d) != Math.signum(delta0))
+            return 0;
+        if (Math.signum(delta0) != Math.signum(delta1) && Math.abs(d) > Math.abs(3 * delta0))
+            return 3 * delta0;
+        return d;
+    }
+
+    /**
+     * Returns the slopes of the C2 cubic spline through (x, y), solving the tridiagonal system
+     *      h_i*d_(i-1) + 2(h_(i-1) + h_i)*d_i + h_(i-1)*d_(i+1) = 3(h_i*delta_(i-1) + h_(i-1)*delta_i)
+     * for the interior nodes, where h_i = x_(i+1) - x_i and delta_i = (y_(i+1) - y_i) / h_i, with the Thomas algorithm.
+     * An end slope of NaN gives the natural end condition 2d_0 + d_1 = 3delta_0 (or d_(n-2) + 2d_(n-1) = 3delta_(n-2)).
+     * The solution is returned in the array that held the right-hand side; the eliminated upper diagonal is the only
+     * other array, and is dropped once the slopes are found.
+     */
+    private static double[] splineSlopes(NodeSource nodes, double startSlope, double endSlope) {
+        int n = nodes.size();
+        double[] d = new double[n];      // right-hand side, then the solution
+        double[] upper = new double[n];  // upper diagonal after elimination
+
+        // first row
+        double h = nodes.x(1) - nodes.x(0);
+        double delta = (nodes.y(1) - nodes.y(0)) / h;
+        double diagonal;
+        if (Double.isNaN(startSlope)) {
+            diagonal = 2;
+            upper[0] = 1;
+            d[0] = 3 * delta;
+        } else {
+            diagonal = 1;
+            upper[0] = 0;
+            d[0] = startSlope;
+        }
+        upper[0] /= diagonal;
+        d[0] /= diagonal;
+
+        // forward elimination of the interior rows
+        for (int i = 1; i < n - 1; i++) {
+            double hNext = nodes.x(i + 1) - nodes.x(i);
+            double deltaNext = (nodes.y(i + 1) - nodes.y(i)) / hNext;
+            double lower = hNext;
+            diagonal = 2 * (h + hNext) - lower * upper[i - 1];
+            upper[i] = h / diagonal;
+            d[i] = (3 * (hNext * delta + h * deltaNext) - lower * d[i - 1]) / diagonal;
+            h = hNext;
+            delta = deltaNext;
+        }
+
+        // last row
+        if (Double.isNaN(endSlope)) {
+            diagonal = 2 - upper[n - 2];
+            d[n - 1] = (3 * delta - d[n - 2]) / diagonal;
+        } else {
+            d[n - 1] = endSlope;
+        }
+
+        // back substitution
+        for (int i = n - 2; i >= 0; i--)
+            d[i] -= upper[i] * d[i + 1];
+        return d;
+    }
+
+    /**
+     * Checks that there are at least 2 nodes with strictly increasing x-values.
+     */
+    private static void checkNodes(NodeSource nodes) {
+        int n = nodes.size();
+        if (n < 2)
+            throw new IllegalArgumentException("A spline needs at least 2 nodes");
+        double previous = nodes.x(0);
+        for (int i = 1; i < n; i++) {
+            double x = nodes.x(i);
+            if (!(x > previous))
+                throw new IllegalArgumentException("x-values must be strictly increasing");
+            previous = x;
+        }
+    }
+
+    /**
+     * Returns 1 / spacing if x is uniformly spaced, or 0 otherwise.
+     */
+    private static double uniformInverseSpacing(NodeSource nodes) {
+        int n = nodes.size();
+        double x0 = nodes.x(0);
+        double range = nodes.x(n - 1) - x0;
+        double spacing = range / (n - 1);
+        double tolerance = UNIFORM_TOLERANCE * range;
+        for (int i = 1; i < n - 1; i++)
+            if (Math.abs(nodes.x(i) - (x0 + i * spacing)) > tolerance)
+                return 0;
+        return 1 / spacing;
+    }
+
+    /**
+     * Returns the index i of the interval [x_i, x_(i+1)] holding x, from 0 to n - 2.
+     * Values outside [x_0, x_(n-1)] give the first or last interval.
+     * @param value value of x
+     * @return index of the interval
+     */
+    public int findInterval(double value) {
+        int last = nodes.size() - 2;
+        if (inverseSpacing != 0) {
+            double position = (value - nodes.x(0)) * inverseSpacing;
+            int i = position <= 0 ? 0 : position >= last ? last : (int) position;
+            // correct for rounding in the spacing
+            if (i > 0 && value < nodes.x(i))
+                i--;
+            else if (i < last && value >= nodes.x(i + 1))
+                i++;
+            return i;
+        }
+        int lo = 0;
+        int hi = last;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (nodes.x(mid) <= value)
+                lo = mid;
+            else
+                hi = mid - 1;
+        }
+        return lo;
+    }
+
+    /**
+     * Evaluates the spline at a given x.
+     * @param value value of x
+     * @return S(x)
+     */
+    public double evaluate(double value) {
+        return evaluate(findInterval(value), value);
+    }
+
+    /**
+     * Evaluates the cubic Hermite polynomial of interval i at a given x.
+     */
+    private double evaluate(int i, double value) {
+        double x0 = nodes.x(i);
+        double y0 = nodes.y(i);
+        double h = nodes.x(i + 1) - x0;
+        double delta = (nodes.y(i + 1) - y0) / h;
+        double d0 = slopes[i];
+        double d1 = slopes[i + 1];
+        double c2 = (3 * delta - 2 * d0 - d1) / h;
+        double c3 = (d0 + d1 - 2 * delta) / (h * h);
+        double s = value - x0;
+        return y0 + s * (d0 + s * (c2 + s * c3));
+    }
+
+    /**
+     * Evaluates the spline at every point of xs, storing S(xs[i]) in out[i].
+     * @param xs  values of x, in any order
+     * @param out array to hold S(x), at least as long as xs
+     */
+    public void evaluate(double[] xs, double[] out) {
+        for (int k = 0; k < xs.length; k++)
+            out[k] = evaluate(xs[k]);
+    }
+
+    /**
+     * Evaluates the spline at every point of xs, storing S(xs[i]) in out[i].
+     * The interval is found by advancing a cursor from the previous point's interval, so for ascending xs the
+     * intervals are found in O(n + xs.length) in total. A point below the previous one falls back to a search.
+     * @param xs  values of x, in ascending order
+     * @param out array to hold S(x), at least as long as xs
+     */
+    public void evaluateSorted(double[] xs, double[] out) {
+        if (xs.length == 0)
+            return;
+        int last = nodes.size() - 2;
+        int i = findInterval(xs[0]);
+        for (int k = 0; k < xs.length; k++) {
+            double value = xs[k];
+            if (i > 0 && value < nodes.x(i))
+                i = findInterval(value);
+            else
+                while (i < last && value >= nodes.x(i + 1))
+                    i++;
+            out[k] = evaluate(i, value);
+        }
+    }
+
+    /**
+     * Returns the slope of the spline at each node
+     * @return slopes
+     */
+    public double[] getSlopes() {
+        return slopes;
+    }
+
+    /**
+     * Returns the number of nodes
+     * @return number of nodes
+     */
+    public int getSize() {
+        return nodes.size();
+    }
+
+    /**
+     * Returns the source of the nodes
+     * @return nodes
+     */
+    public NodeSource getNodes() {
+        return nodes;
+    }
+}
@@ -1,5 +1,9 @@
 package interpolation;
 
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 /**
  *  Abstract Class InterpolatingPolynomial
  *
@@ -8,17 +12,22 @@ package interpolation;
  *      NewtonPolynomial, which represents interpolating polynomials using Newton's divided difference method.
  *
  *  Contains double[][] array 'nodes' which holds the data to interpolate, with x[] = nodes[0] and y[] = nodes[1].
+ *  The nodes may also be copied from a NodeSource, such as a MappedNodeSource reading them from a file.
  *  Contains double[] coefficients, which is the same size as nodes[0] and holds the coefficients for each term of the polynomial.
  *
  *  uniformNodes() automatically populates nodes[0] with x-values that are evenly spaced, and
  *  chebyshevNodes() automatically populates nodes[0] with x-values as optimal Chebyshev nodes.
  *  computeCoefficients() populates coefficients[] array based on values in nodes[].
- *  evaluate() evaluates the interpolating polynomial for a given value of x.
+ *  evaluate() evaluates the interpolating polynomial for a given value of x, or for a whole array of x-values,
+ *  in which case arrays larger than PARALLEL_THRESHOLD are split across the common ForkJoinPool.
  *
  *  @author Aaron Anderson
  *          9/19/18
  */
 public abstract class InterpolatingPolynomial {
+    /** Number of points above which a batch evaluation is split across the common ForkJoinPool */
+    public static final int PARALLEL_THRESHOLD = 1 << 13;
+
     /**
      * Holds the data points for this class, with
      * nodes[0] = x-values, and nodes[1] = y-values.
@@ -29,6 +38,23 @@ public abstract class InterpolatingPolynomial {
      */
     public double[] coefficients;
 
+    /**
+     * Copies the nodes of a NodeSource into an array laid out like 'nodes'.
+     * A global interpolating polynomial is only useful for a modest number of nodes, so unlike CubicSpline,
+     * which reads a NodeSource in place, the polynomials keep their own copy.
+     * @param source    source of nodes
+     * @return array of nodes, with nodes[0] = x-values and nodes[1] = y-values
+     */
+    protected static double[][] copyNodes(NodeSource source) {
+        int n = source.size();
+        double[][] nodes = new double[2][n];
+        for (int i = 0; i < n; i++) {
+            nodes[0][i] = source.x(i);
+            nodes[1][i] = source.y(i);
+        }
+        return nodes;
+    }
+
     /**
      * Automatically populates nodes[0] (x-values) with evenly spaced nodes at (origin + i*distance).
      * @param origin    Starting position.
@@ -55,4 +81,78 @@ public abstract class InterpolatingPolynomial {
      * @param x value of x.
      */
     public abstract double evaluate(double x);
+
+    /**
+     * Evaluates interpolating polynomial at every point of xs, storing P(xs[i]) in out[i].
+     * @param xs  values of x
+     * @param out array to hold P(x), at least as long as xs
+     */
+    public void evaluate(double[] xs, double[] out) {
+        evaluate(xs, 0, out, 0, xs.length);
+    }
+
+    /**
+     * Evaluates interpolating polynomial at xs[xOffset] to xs[xOffset + length - 1],
+     * storing P(xs[xOffset + i]) in out[outOffset + i].
+     * Arrays longer than PARALLEL_THRESHOLD are split across the common ForkJoinPool,
+     * so computeCoefficients() must not be called while this runs.
+     * @param xs        values of x
+     * @param xOffset   index of the first x
+     * @param out       array to hold P(x)
+     * @param outOffset index of the first P(x)
+     * @param length    number of points
+     */
+    public void evaluate(double[] xs, int xOffset, double[] out, int outOffset, int length) {
+        Objects.checkFromIndexSize(xOffset, length, xs.length);
+        Objects.checkFromIndexSize(outOffset, length, out.length);
+        if (length > PARALLEL_THRESHOLD)
+            ForkJoinPool.commonPool().invoke(new BatchTask(xs, xOffset, out, outOffset, length));
+        else
+            evaluateRange(xs, xOffset, out, outOffset, length);
+    }
+
+    /**
+     * Evaluates interpolating polynomial over a range of points on the calling thread.
+     * Subclasses may override this with a form that evaluates many points at once.
+     * @param xs        values of x
+     * @param xOffset   index of the first x
+     * @param out       array to hold P(x)
+     * @param outOffset index of the first P(x)
+     * @param length    number of points
+     */
+    protected void evaluateRange(double[] xs, int xOffset, double[] out, int outOffset, int length) {
+        for (int k = 0; k < length; k++)
+            out[outOffset + k] = evaluate(xs[xOffset + k]);
+    }
+
+    /**
+     * Task that halves a batch evaluation until each part is at most PARALLEL_THRESHOLD points.
+     */
+    private final class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] xs;
+        private final int xOffset;
+        private final double[] out;
+        private final int outOffset;
+        private final int length;
+
+        BatchTask(double[] xs, int xOffset, double[] out, int outOffset, int length) {
+            this.xs = xs;
+            this.xOffset = xOffset;
+            this.out = out;
+            this.outOffset = outOffset;
+            this.length = length;
+        }
+
+        protected void compute() {
+            if (length <= PARALLEL_THRESHOLD) {
+                evaluateRange(xs, xOffset, out, outOffset, length);
+            } else {
+                int half = length >>> 1;
+                invokeAll(new BatchTask(xs, xOffset, out, outOffset, half),
+                          new BatchTask(xs, xOffset + half, out, outOffset + half, length - half));
+            }
+        }
+    }
 }
@@ -5,10 +5,28 @@ package interpolation;
  *
  *  Represents a Lagrange interpolating polynomial.
  *
+ *  By default the polynomial is evaluated in the standard Lagrange form, which costs O(n^2) per point.
+ *  In barycentric mode it is instead evaluated in the second (true) barycentric form
+ *      P(x) = SUM(w_i * y_i / (x - x_i)) / SUM(w_i / (x - x_i)),  w_i = 1 / PRODUCT(x_i - x_j) for j != i
+ *  which costs O(n) per point using the weights w_i precomputed by computeCoefficients(), and is numerically stable.
+ *  The formula is unchanged by multiplying every weight by the same factor, so the weights are stored scaled by a
+ *  power of two that makes the largest of them about 1: for a few dozen nodes on a very wide or very narrow
+ *  interval, the products themselves overflow or underflow, which would make the quotient NaN.
+ *  addNode() adds a node and updates the weights and coefficients in O(n).
+ *
  * @author Aaron Anderson
  *         9/19/18
  */
 public class LagrangePolynomial extends InterpolatingPolynomial {
+    /**
+     * Holds the barycentric weights, with weights[i] = 2^weightScale / PRODUCT(x_i - x_j) for j != i,
+     * the largest of them about 1 in magnitude.
+     */
+    public double[] weights;
+    /** Power of two by which the weights are scaled */
+    private int weightScale;
+    /** Whether evaluate() uses the barycentric form */
+    private boolean barycentric;
 
     /**
      * Constructor for LagrangePolynomial given the number of nodes.
@@ -25,21 +43,124 @@ public class LagrangePolynomial extends InterpolatingPolynomial {
      */
     public LagrangePolynomial(double[][] nodes) {
         this.nodes = nodes;
+        this.coefficients = new double[nodes[0].length];
+    }
+
+    /**
+     * Constructor for LagrangePolynomial given a source of nodes, which are copied.
+     * @param source source of nodes
+     */
+    public LagrangePolynomial(NodeSource source) {
+        this(copyNodes(source));
+    }
+
+    /**
+     * Constructor for LagrangePolynomial given the number of nodes and the form of evaluation.
+     * @param n             number of nodes
+     * @param barycentric   whether to evaluate in the barycentric form
+     */
+    public LagrangePolynomial(int n, boolean barycentric) {
+        this(n);
+        this.barycentric = barycentric;
     }
 
     /**
-     * Populates the coefficients[] array, with the
-     * nth coefficient = y_n / PRODUCT(x_n - x_j) for j != n.
+     * Returns whether evaluate() uses the barycentric form.
+     * @return whether this polynomial is in barycentric mode
+     */
+    public boolean isBarycentric() {
+        return barycentric;
+    }
+
+    /**
+     * Sets whether evaluate() uses the barycentric form.
+     * @param barycentric whether to evaluate in the barycentric form
+     */
+    public void setBarycentric(boolean barycentric) {
+        this.barycentric = barycentric;
+    }
+
+    /**
+     * Populates the weights[] array, with the nth weight = 2^weightScale / PRODUCT(x_n - x_j) for j != n, and the
+     * coefficients[] array, with the nth coefficient = y_n / PRODUCT(x_n - x_j) for j != n.
+     * Each product is accumulated as a mantissa and a separate exponent, so that the weights are exact
+     * to rounding even where the product itself is out of the range of a double.
+     * Both arrays are filled before they are assigned, so a thread reading them never sees a partly filled array.
      */
     public void computeCoefficients() {
-        for(int i = 0; i < coefficients.length; i++) {
+        int n = nodes[0].length;
+        double[] newCoefficients = new double[n];
+        double[] newWeights = new double[n];
+        int[] exponents = new int[n];
+        int max = n == 0 ? 0 : Integer.MIN_VALUE;
+        for(int i = 0; i < n; i++) {
             double d = 1;
-            for(int j = 0; j < nodes[0].length; j++) {
-                if(i != j)
+            int e = 0;
+            for(int j = 0; j < n; j++) {
+                if(i != j) {
                     d *= nodes[0][i] - nodes[0][j];
+                    int k = Math.getExponent(d);
+                    d = Math.scalb(d, -k);
+                    e += k;
+                }
+            }
+            newWeights[i] = 1 / d;
+            exponents[i] = -e;
+            max = Math.max(max, -e);
+            newCoefficients[i] = nodes[1][i] * Math.scalb(1 / d, -e);
+        }
+        for (int i = 0; i < n; i++)
+            newWeights[i] = Math.scalb(newWeights[i], exponents[i] - max);
+        weightScale = -max;
+        coefficients = newCoefficients;
+        weights = newWeights;
+    }
+
+    /**
+     * Adds the node (x, y) to this polynomial.
+     * If the coefficients have already been computed, the weights and coefficients are updated in O(n):
+     *      w_i = w_i / (x_i - x) for the existing nodes, and w_n = 1 / PRODUCT(x - x_i),
+     * and the weights are then rescaled so that the largest is about 1 again.
+     * @param x x-value of the new node, which must differ from every existing x-value
+     * @param y y-value of the new node
+     */
+    public void addNode(double x, double y) {
+        int n = nodes[0].length;
+        double[][] newNodes = new double[2][n + 1];
+        System.arraycopy(nodes[0], 0, newNodes[0], 0, n);
+        System.arraycopy(nodes[1], 0, newNodes[1], 0, n);
+        newNodes[0][n] = x;
+        newNodes[1][n] = y;
+
+        if (weights != null && weights.length == n) {
+            double[] newWeights = new double[n + 1];
+            double[] newCoefficients = new double[n + 1];
+            double d = 1;
+            int e = 0;
+            double largest = 0;
+            for (int i = 0; i < n; i++) {
+                newWeights[i] = weights[i] / (nodes[0][i] - x);
+                newCoefficients[i] = coefficients[i] / (nodes[0][i] - x);
+                largest = Math.max(largest, Math.abs(newWeights[i]));
+                d *= x - nodes[0][i];
+                int k = Math.getExponent(d);
+                d = Math.scalb(d, -k);
+                e += k;
             }
-            coefficients[i] = nodes[1][i] / d;
+            newCoefficients[n] = y * Math.scalb(1 / d, -e);
+            // the new weight may be far out of range before rescaling, so rescale its exponent separately
+            int shift = -Math.max(Math.getExponent(largest), weightScale - e);
+            for (int i = 0; i < n; i++)
+                newWeights[i] = Math.scalb(newWeights[i], shift);
+            newWeights[n] = Math.scalb(1 / d, weightScale - e + shift);
+            weightScale += shift;
+            weights = newWeights;
+            coefficients = newCoefficients;
+        } else {
+            coefficients = new double[n + 1];
+            weights = null;
         }
+        nodes = newNodes;
     }
 
     /**
@@ -48,10 +169,12 @@ public class LagrangePolynomial extends InterpolatingPolynomial {
      * @return P(x)
      */
     public double evaluate(double x) {
+        if (barycentric)
+            return evaluateBarycentric(x);
         double result = 0;
         for(int i = 0; i < nodes[0].length; i++) {
             double term = 1;
-            for(int j = 0; j < nodes[0].length; i++) {
+            for(int j = 0; j < nodes[0].length; j++) {
                 if(i != j)
                     term *= x - nodes[0][j];
             }
@@ -59,4 +182,49 @@ public class LagrangePolynomial extends InterpolatingPolynomial {
         }
         return result;
     }
+
+    /**
+     * Evaluates the interpolating polynomial at every point of xs, as in InterpolatingPolynomial.
+     * In barycentric mode the weights are computed first if they are missing, so that the threads of a parallel
+     * evaluation only read them.
+     */
+    public void evaluate(double[] xs, int xOffset, double[] out, int outOffset, int length) {
+        if (barycentric)
+            currentWeights();
+        super.evaluate(xs, xOffset, out, outOffset, length);
+    }
+
+    /**
+     * Evaluates the interpolating polynomial at a given x in the second barycentric form, in O(n).
+     * If x is exactly one of the nodes, the y-value of that node is returned.
+     * The weights are computed first if computeCoefficients() has not been called since the nodes last changed.
+     * @param x value of x.
+     * @return P(x)
+     */
+    public double evaluateBarycentric(double x) {
+        double[] w = currentWeights();
+        double numerator = 0;
+        double denominator = 0;
+        for (int i = 0; i < w.length; i++) {
+            double diff = x - nodes[0][i];
+            if (diff == 0)
+                return nodes[1][i];
+            double t = w[i] / diff;
+            numerator += nodes[1][i] * t;
+            denominator += t;
+        }
+        return numerator / denominator;
+    }
+
+    /**
+     * Returns the weights for the current nodes, computing them first if they are missing or out of date.
+     */
+    private double[] currentWeights() {
+        double[] w = weights;
+        if (w == null || w.length != nodes[0].length) {
+            computeCoefficients();
+            w = weights;
+        }
+        return w;
+    }
 }
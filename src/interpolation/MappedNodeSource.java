@@ -0,0 +1,115 @@
+package interpolation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ *  Class MappedNodeSource, implements NodeSource
+ *
+ *  A NodeSource that reads nodes directly from a memory-mapped binary file, without parsing or copying them
+ *  onto the heap. The file holds n x-values followed by n y-values, each a packed little-endian double,
+ *  so its length is 16n bytes. write() creates such a file.
+ *
+ *  A single mapping is limited to 2 GB, so the file is mapped in chunks of CHUNK_SIZE bytes,
+ *  each holding a whole number of doubles. Pages are only read from disk when they are first accessed,
+ *  and are cached by the operating system rather than the Java heap.
+ */
+public final class MappedNodeSource implements NodeSource {
+    /** log2 of the number of doubles per mapped chunk */
+    private static final int CHUNK_SHIFT = 27;
+    /** Number of bytes per mapped chunk (1 GB) */
+    public static final long CHUNK_SIZE = 8L << CHUNK_SHIFT;
+    /** Mask for the index of a double within its chunk */
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+    /** Mapped chunks of the file */
+    private final ByteBuffer[] chunks;
+    /** Number of nodes */
+    private final int size;
+
+    /**
+     * Constructor for MappedNodeSource that maps a node file read-only.
+     * The file may be closed or moved once mapped, but must not be truncated while this source is in use.
+     * @param path path of the node file
+     * @throws IOException if the file cannot be mapped or its length is not a multiple of 16 bytes
+     */
+    public MappedNodeSource(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length % 16 != 0 || length / 16 > Integer.MAX_VALUE)
+                throw new IOException("Not a node file: " + path);
+            size = (int) (length / 16);
+            chunks = new ByteBuffer[(int) ((length + CHUNK_SIZE - 1) / CHUNK_SIZE)];
+            for (int c = 0; c < chunks.length; c++) {
+                long position = c * CHUNK_SIZE;
+                MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                                                     Math.min(CHUNK_SIZE, length - position));
+                chunks[c] = chunk.order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+    }
+
+    /**
+     * Writes nodes to a file in the format read by MappedNodeSource, replacing any existing file.
+     * @param path  path of the node file
+     * @param nodes nodes to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, NodeSource nodes) throws IOException {
+        int n = nodes.size();
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int column = 0; column < 2; column++) {
+                for (int i = 0; i < n; i++) {
+                    if (!buffer.hasRemaining())
+                        flush(channel, buffer);
+                    buffer.putDouble(column == 0 ? nodes.x(i) : nodes.y(i));
+                }
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    /**
+     * Writes nodes to a file in the format read by MappedNodeSource, replacing any existing file.
+     * @param path  path of the node file
+     * @param nodes array of nodes, with nodes[0] = x-values and nodes[1] = y-values
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, double[][] nodes) throws IOException {
+        write(path, new ArrayNodeSource(nodes));
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Returns the double at a given index of the file.
+     */
+    private double get(long index) {
+        return chunks[(int) (index >>> CHUNK_SHIFT)].getDouble((int) (index & CHUNK_MASK) << 3);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double x(int i) {
+        return get(Objects.checkIndex(i, size));
+    }
+
+    public double y(int i) {
+        return get((long) size + Objects.checkIndex(i, size));
+    }
+}
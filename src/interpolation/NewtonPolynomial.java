@@ -5,10 +5,18 @@ package interpolation;
  *
  *  Represents a interpolating polynomial based on Newton's divided difference method.
  *
+ *  The divided differences are computed in O(n^2) time and O(n) space by building the table one node at a time,
+ *  keeping only its last diagonal f[x_(n-1)], f[x_(n-2), x_(n-1)], ..., f[x_0...x_(n-1)].
+ *  addNode() uses that diagonal to extend the polynomial with a new node in O(n).
+ *
  * @author Aaron Anderson
  *         9/19/18
  */
 public class NewtonPolynomial extends InterpolatingPolynomial {
+    /**
+     * Last diagonal of the divided difference table, with diagonal[j] = f[x_(n-1-j)...x_(n-1)].
+     */
+    private double[] diagonal;
 
     /**
      * Constructor for NewtonPolynomial given the number of nodes.
@@ -25,6 +33,15 @@ public class NewtonPolynomial extends InterpolatingPolynomial {
      */
     public NewtonPolynomial(double[][] nodes) {
         this.nodes = nodes;
+        this.coefficients = new double[nodes[0].length];
+    }
+
+    /**
+     * Constructor for NewtonPolynomial given a source of nodes, which are copied.
+     * @param source source of nodes
+     */
+    public NewtonPolynomial(NodeSource source) {
+        this(copyNodes(source));
     }
 
     /**
@@ -46,45 +63,116 @@ public class NewtonPolynomial extends InterpolatingPolynomial {
     /**
      * Returns the divided difference from a set of x[] and a set of fx[].
      *      f[x_0...x_n] = (f[x_1...x_n] - f[x_0...x_(n-1)]) / (x_n - x_0)
-     * Uses recursion to return lower-order divided differences.
+     * Computes each order of divided differences in place from the previous one, in O(n^2).
      * @param x     set of x-values
      * @param fx    set of y-values
      * @return  Divided difference from set. 0th order divided differences are the value of the function at that point.
      */
     public double dividedDifference(double[] x, double[] fx) {
-        if (fx.length == 1) {
-            return fx[0];
-        }
-        else {
-            return (  dividedDifference(partialArray(x, 1, fx.length - 1), partialArray(fx, 1, x.length - 1))
-                    - dividedDifference(partialArray(x, 0, fx.length - 1), partialArray(fx, 0, x.length - 1))  )
-                    / (  x[x.length - 1] - x[0] );
-        }
+        double[] table = partialArray(fx, 0, fx.length);
+        for (int order = 1; order < table.length; order++)
+            for (int i = 0; i < table.length - order; i++)
+                table[i] = (table[i + 1] - table[i]) / (x[i + order] - x[i]);
+        return table[0];
     }
 
     /**
      * Populates the coefficients[] array, with the nth coefficient = nth divided difference = f[x_0...x_n].
+     * The table is built one node at a time as in addNode(), so only its last diagonal is kept.
      */
     public void computeCoefficients() {
-        for (int i = 0; i < coefficients.length; i++)
-            coefficients[i] = dividedDifference(partialArray(nodes[0], 0, i + 1), partialArray(nodes[1], 0, i + 1));
+        int n = nodes[0].length;
+        if (coefficients == null || coefficients.length != n)
+            coefficients = new double[n];
+        diagonal = new double[n];
+        for (int k = 0; k < n; k++)
+            coefficients[k] = extendDiagonal(k, nodes[0][k], nodes[1][k]);
     }
 
     /**
-     * Evaluates the interpolating polynomial at a given x.
+     * Adds the node (x, y) to this polynomial.
+     * If the coefficients have already been computed, the new coefficient f[x_0...x_n] is found in O(n)
+     * from the last diagonal of the divided difference table, and the existing coefficients are unchanged.
+     * @param x x-value of the new node, which must differ from every existing x-value
+     * @param y y-value of the new node
+     */
+    public void addNode(double x, double y) {
+        int n = nodes[0].length;
+        double[][] newNodes = new double[2][n + 1];
+        System.arraycopy(nodes[0], 0, newNodes[0], 0, n);
+        System.arraycopy(nodes[1], 0, newNodes[1], 0, n);
+        newNodes[0][n] = x;
+        newNodes[1][n] = y;
+        nodes = newNodes;
+
+        double[] newCoefficients = new double[n + 1];
+        if (diagonal != null && diagonal.length == n) {
+            System.arraycopy(coefficients, 0, newCoefficients, 0, n);
+            double[] newDiagonal = new double[n + 1];
+            System.arraycopy(diagonal, 0, newDiagonal, 0, n);
+            diagonal = newDiagonal;
+            newCoefficients[n] = extendDiagonal(n, x, y);
+        } else {
+            diagonal = null;
+        }
+        coefficients = newCoefficients;
+    }
+
+    /**
+     * Replaces the last diagonal of the divided difference table for nodes x_0...x_(k-1)
+     * with the diagonal for nodes x_0...x_k, using
+     *      f[x_(k-j)...x_k] = (f[x_(k-j+1)...x_k] - f[x_(k-j)...x_(k-1)]) / (x_k - x_(k-j))
+     * @param k index of the new node
+     * @param x x-value of the new node
+     * @param y y-value of the new node
+     * @return  f[x_0...x_k]
+     */
+    private double extendDiagonal(int k, double x, double y) {
+        double carry = y;
+        for (int j = 1; j <= k; j++) {
+            double next = (carry - diagonal[j - 1]) / (x - nodes[0][k - j]);
+            diagonal[j - 1] = carry;
+            carry = next;
+        }
+        diagonal[k] = carry;
+        return carry;
+    }
+
+    /**
+     * Evaluates the interpolating polynomial at a given x in nested form,
+     *      P(x) = c_0 + (x - x_0)(c_1 + (x - x_1)(c_2 + ... + (x - x_(n-2))c_(n-1)))
+     * in a single pass without allocating.
      * @param x value of x.
      * @return P(x)
      */
     public double evaluate(double x) {
-        double[] terms = new double[nodes[0].length - 1];
-        terms[0] = (x - nodes[0][0]);
-        for (int i = 1; i < terms.length; i++)
-            terms[i] = (x - nodes[0][i]) * terms[i - 1];
-
-        double sum = coefficients[0];
-        for(int i = 0; i < terms.length; i++)
-            sum += coefficients[i + 1] * terms[i];
-
+        int n = coefficients.length;
+        double sum = coefficients[n - 1];
+        for (int i = n - 2; i >= 0; i--)
+            sum = sum * (x - nodes[0][i]) + coefficients[i];
         return sum;
     }
+
+    /**
+     * Evaluates the interpolating polynomial over a range of points in nested form.
+     * The loops are interchanged so that each step of the nesting is applied to every point before the next,
+     * which keeps the coefficients out of the inner loop and lets it be vectorized.
+     * @param xs        values of x
+     * @param xOffset   index of the first x
+     * @param out       array to hold P(x)
+     * @param outOffset index of the first P(x)
+     * @param length    number of points
+     */
+    protected void evaluateRange(double[] xs, int xOffset, double[] out, int outOffset, int length) {
+        int n = coefficients.length;
+        double c = coefficients[n - 1];
+        for (int k = 0; k < length; k++)
+            out[outOffset + k] = c;
+        for (int i = n - 2; i >= 0; i--) {
+            double node = nodes[0][i];
+            double ci = coefficients[i];
+            for (int k = 0; k < length; k++)
+                out[outOffset + k] = out[outOffset + k] * (xs[xOffset + k] - node) + ci;
+        }
+    }
 }
@@ -0,0 +1,31 @@
+package interpolation;
+
+/**
+ *  Interface NodeSource
+ *
+ *  A read-only source of interpolation nodes (x_i, y_i), i = 0 ... size() - 1.
+ *  Implementations may keep the nodes on the heap (ArrayNodeSource) or read them directly
+ *  from a memory-mapped file (MappedNodeSource), so that an interpolant can be fitted to and
+ *  queried over a dataset without first copying it into double[][] arrays.
+ */
+public interface NodeSource {
+    /**
+     * Returns the number of nodes
+     * @return number of nodes
+     */
+    int size();
+
+    /**
+     * Returns the x-value of a node
+     * @param i index of the node
+     * @return x_i
+     */
+    double x(int i);
+
+    /**
+     * Returns the y-value of a node
+     * @param i index of the node
+     * @return y_i
+     */
+    double y(int i);
+}
@@ -0,0 +1,145 @@
+package interpolation;
+
+/**
+ *  Class StreamingNewtonInterpolator
+ *
+ *  Represents the interpolating polynomial through the last k samples of a stream, for predicting and smoothing
+ *  live time series without rebuilding a NewtonPolynomial for every sample.
+ *
+ *  The polynomial is kept in Newton form with the nodes ordered from newest to oldest, z_0 = newest:
+ *      P(x) = c_0 + (x - z_0)(c_1 + (x - z_1)(c_2 + ... + (x - z_(m-2))c_(m-1))),  c_j = f[z_0...z_j]
+ *  When a sample (x, y) arrives it becomes z_0, and the new coefficients follow from the old ones by
+ *      c'_0 = y,   c'_j = (c'_(j-1) - c_(j-1)) / (x - z_(j-1))
+ *  Since c_0 ... c_(k-2) do not depend on the oldest node, evicting it simply drops the last coefficient,
+ *  so add() costs O(k) and never allocates.
+ *
+ *  The x-values and the coefficients are stored in two ring buffers of length k, aligned so that c_j and z_j
+ *  share a slot: the new sample takes the slot of the oldest, and each c'_j overwrites c_(j-1) in its slot.
+ *  evaluate() runs the nested form from the oldest node to the newest in O(k), also without allocating.
+ *  Samples must be added in strictly increasing order of x, as in a time series.
+ */
+public class StreamingNewtonInterpolator {
+    /** x-values of the samples in the window, z_j in slot (head + j) mod k */
+    private final double[] x;
+    /** Newton coefficients, c_j in slot (head + j) mod k */
+    private final double[] c;
+    /** Slot of the newest sample */
+    private int head;
+    /** Number of samples in the window, at most k */
+    private int size;
+
+    /**
+     * Constructor for StreamingNewtonInterpolator given the length of the window.
+     * @param window number of samples k to interpolate, so that the degree is at most k - 1
+     */
+    public StreamingNewtonInterpolator(int window) {
+        if (window < 1)
+            throw new IllegalArgumentException("The window must hold at least 1 sample");
+        this.x = new double[window];
+        this.c = new double[window];
+    }
+
+    /**
+     * Adds the sample (x, y) as the newest node, evicting the oldest node if the window is full.
+     * @param xNew  x-value of the sample, greater than that of every sample before it
+     * @param yNew  y-value of the sample
+     */
+    public void add(double xNew, double yNew) {
+        if (size > 0 && !(xNew > x[head]))
+            throw new IllegalArgumentException("Samples must be added in strictly increasing order of x");
+        int k = x.length;
+        head = head == 0 ? k - 1 : head - 1;
+        if (size < k)
+            size++;
+
+        // slot (head + j) still holds z_(j-1) and c_(j-1) of the old window until it is overwritten
+        double carry = yNew;
+        int slot = head;
+        for (int j = 1; j < size; j++) {
+            slot = slot == k - 1 ? 0 : slot + 1;
+            double next = (carry - c[slot]) / (xNew - x[slot]);
+            c[slot] = next;
+            carry = next;
+        }
+        // the x-values are shifted by the ring itself, so only the newest has to be stored
+        x[head] = xNew;
+        c[head] = yNew;
+    }
+
+    /**
+     * Evaluates the interpolating polynomial of the current window at a given x in nested form.
+     * @param value value of x, normally close to the newest sample
+     * @return P(x), or NaN if no sample has been added
+     */
+    public double evaluate(double value) {
+        if (size == 0)
+            return Double.NaN;
+        int k = x.length;
+        int slot = head + size - 1;
+        if (slot >= k)
+            slot -= k;
+        double sum = c[slot];
+        for (int j = size - 2; j >= 0; j--) {
+            slot = slot == 0 ? k - 1 : slot - 1;
+            sum = sum * (value - x[slot]) + c[slot];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the jth Newton coefficient f[z_0...z_j], with z_0 the newest sample
+     * @param j index of the coefficient, from 0 to size() - 1
+     * @return c_j
+     */
+    public double getCoefficient(int j) {
+        return c[slot(j)];
+    }
+
+    /**
+     * Returns the x-value of the jth newest sample in the window
+     * @param j index of the sample, with 0 the newest and size() - 1 the oldest
+     * @return z_j
+     */
+    public double getX(int j) {
+        return x[slot(j)];
+    }
+
+    private int slot(int j) {
+        if (j < 0 || j >= size)
+            throw new IndexOutOfBoundsException("Index " + j + " out of bounds for window of " + size + " samples");
+        int slot = head + j;
+        return slot >= x.length ? slot - x.length : slot;
+    }
+
+    /**
+     * Removes every sample from the window.
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Returns the number of samples in the window
+     * @return number of samples
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the length of the window
+     * @return k
+     */
+    public int getWindow() {
+        return x.length;
+    }
+
+    /**
+     * Returns whether the window holds k samples
+     * @return whether the window is full
+     */
+    public boolean isFull() {
+        return size == x.length;
+    }
+}
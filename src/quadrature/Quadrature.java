@@ -0,0 +1,509 @@
+package quadrature;
+
+import function.Function;
+import interpolation.InterpolatingPolynomial;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ *  Class Quadrature:
+ *  This class contains methods that approximate the definite integral of a function over [a, b].
+ *  Given a Function (from the function package) or an InterpolatingPolynomial (from the interpolation package),
+ *  each method returns a QuadratureResult holding the approximate integral, an estimate of its error,
+ *  and the number of evaluations of the integrand.
+ *
+ *  The composite Simpson's rule converges with order h^4 for smooth integrands. Its tolerance form doubles
+ *  the number of panels until two successive results agree, reusing every earlier evaluation.
+ *  Gauss-Legendre rules of up to MAX_GAUSS_POINTS points are computed once, when this class is loaded,
+ *  and are exact for polynomials of degree 2*points - 1 on each panel.
+ *  The adaptive Gauss-Kronrod method applies the 15-point Kronrod rule to each panel, which reuses the
+ *  7 evaluations of the embedded Gauss rule for its error estimate, and splits only the panels whose estimate
+ *  is too large. Splits are processed in parallel on the common ForkJoinPool, as are large composite rules.
+ *  The number of evaluations it may use is capped (MAX_EVALUATIONS by default), so that an integrand it cannot
+ *  resolve, such as one with a singularity, returns the best estimate reached together with its error.
+ *
+ *  Functions are compiled (see Function.compile()) before integration, and interpolating polynomials must not
+ *  be changed while they are being integrated, since they may be evaluated from several threads at once.
+ */
+public final class Quadrature {
+    /** Largest number of points of the precomputed Gauss-Legendre rules */
+    public static final int MAX_GAUSS_POINTS = 64;
+    /** Number of evaluations above which a composite rule is split across the common ForkJoinPool */
+    private static final int PARALLEL_THRESHOLD = 1 << 12;
+    /** Maximum number of times a panel is halved by the adaptive Gauss-Kronrod method */
+    private static final int MAX_DEPTH = 40;
+    /** Default maximum number of evaluations of the adaptive Gauss-Kronrod method */
+    public static final long MAX_EVALUATIONS = 1 << 20;
+
+    /** Gauss-Legendre nodes on [-1, 1], with GAUSS_NODES[n] holding the nodes of the n-point rule */
+    private static final double[][] GAUSS_NODES = new double[MAX_GAUSS_POINTS + 1][];
+    /** Gauss-Legendre weights, with GAUSS_WEIGHTS[n] holding the weights of the n-point rule */
+    private static final double[][] GAUSS_WEIGHTS = new double[MAX_GAUSS_POINTS + 1][];
+
+    /** Non-negative nodes of the 15-point Kronrod rule on [-1, 1]; odd indices are nodes of the 7-point Gauss rule */
+    private static final double[] KRONROD_NODES = {
+            0.991455371120812639206854697526329, 0.949107912342758524526189684047851,
+            0.864864423359769072789712788640926, 0.741531185599394439863864773280788,
+            0.586087235467691130294144845693013, 0.405845151377397166906606412076961,
+            0.207784955007898467600689403773245, 0.000000000000000000000000000000000
+    };
+    /** Weights of the 15-point Kronrod rule */
+    private static final double[] KRONROD_WEIGHTS = {
+            0.022935322010529224963732008058970, 0.063092092629978553290700663189204,
+            0.104790010322250183839876322541518, 0.140653259715525918745189590510238,
+            0.169004726639267902826583426598550, 0.190350578064785409913256402421014,
+            0.204432940075298892414161999234649, 0.209482141084727828012999174891714
+    };
+    /** Weights of the embedded 7-point Gauss rule, for KRONROD_NODES[1], [3], [5] and [7] */
+    private static final double[] KRONROD_GAUSS_WEIGHTS = {
+            0.129484966168869693270611432679082, 0.279705391489276667901467771423780,
+            0.381830050505118944950369775488975, 0.417959183673469387755102040816327
+    };
+
+    static {
+        for (int n = 1; n <= MAX_GAUSS_POINTS; n++)
+            computeGaussRule(n);
+    }
+
+    private Quadrature() {
+    }
+
+    /**
+     * Computes the nodes and weights of the n-point Gauss-Legendre rule, by finding the roots of the
+     * Legendre polynomial P_n with Newton's method, using the recurrence
+     *      (k + 1) P_(k+1)(x) = (2k + 1) x P_k(x) - k P_(k-1)(x)
+     * and the weights w_i = 2 / ((1 - x_i^2) P_n'(x_i)^2).
+     * @param n number of points
+     */
+    private static void computeGaussRule(int n) {
+        double[] x = new double[n];
+        double[] w = new double[n];
+        for (int i = 0; i < (n + 1) / 2; i++) {
+            double z = Math.cos(Math.PI * (i + 0.75) / (n + 0.5));
+            double dp;
+            double delta;
+            int iterations = 0;
+            do {
+                double p0 = 1;
+                double p1 = z;
+                for (int k = 1; k < n; k++) {
+                    double p2 = ((2 * k + 1) * z * p1 - k * p0) / (k + 1);
+                    p0 = p1;
+                    p1 = p2;
+                }
+                dp = n * (z * p1 - p0) / (z * z - 1);
+                delta = p1 / dp;
+                z -= delta;
+            } while (Math.abs(delta) > 1e-16 && ++iterations < 100);
+            x[i] = -z;
+            x[n - 1 - i] = z;
+            w[i] = 2 / ((1 - z * z) * dp * dp);
+            w[n - 1 - i] = w[i];
+        }
+        GAUSS_NODES[n] = x;
+        GAUSS_WEIGHTS[n] = w;
+    }
+
+    /**
+     * Returns the nodes of the n-point Gauss-Legendre rule on [-1, 1].
+     * @param n number of points, from 1 to MAX_GAUSS_POINTS
+     * @return copy of the nodes, in ascending order
+     */
+    public static double[] gaussNodes(int n) {
+        return GAUSS_NODES[checkPoints(n)].clone();
+    }
+
+    /**
+     * Returns the weights of the n-point Gauss-Legendre rule on [-1, 1].
+     * @param n number of points, from 1 to MAX_GAUSS_POINTS
+     * @return copy of the weights, in the order of gaussNodes(n)
+     */
+    public static double[] gaussWeights(int n) {
+        return GAUSS_WEIGHTS[checkPoints(n)].clone();
+    }
+
+    private static int checkPoints(int n) {
+        if (n < 1 || n > MAX_GAUSS_POINTS)
+            throw new IllegalArgumentException("Gauss-Legendre rules have from 1 to " + MAX_GAUSS_POINTS + " points");
+        return n;
+    }
+
+    /**
+     *  Implements the composite Simpson's rule with n panels.
+     *  n is rounded up to a multiple of 4, so that the error can be estimated from the rule with n/2 panels,
+     *  which uses a subset of the same evaluations: error = |S_n - S_(n/2)| / 15.
+     *
+     * @param f Function to integrate
+     * @param a Lower bound of integration
+     * @param b Upper bound of integration
+     * @param n Number of panels
+     * @return  QuadratureResult holding the integral, error estimate and number of evaluations
+     */
+    public static QuadratureResult simpson(Function f, double a, double b, int n) {
+        return simpson(f.compile(), a, b, n);
+    }
+
+    /**
+     *  Implements the composite Simpson's rule with n panels, see simpson(Function, double, double, int).
+     *
+     * @param p InterpolatingPolynomial to integrate
+     * @param a Lower bound of integration
+     * @param b Upper bound of integration
+     * @param n Number of panels
+     * @return  QuadratureResult holding the integral, error estimate and number of evaluations
+     */
+    public static QuadratureResult simpson(InterpolatingPolynomial p, double a, double b, int n) {
+        return simpson(p::evaluate, a, b, n);
+    }
+
+    private static QuadratureResult simpson(DoubleUnaryOperator f, double a, double b, int n) {
+        n = Math.max(4, (n + 3) & ~3);
+        double h = (b - a) / n;
+        double ends = f.applyAsDouble(a) + f.applyAsDouble(b);
+        double sum0 = gridSum(f, a, h, 4, 4, n / 4 - 1);
+        double sum2 = gridSum(f, a, h, 2, 4, n / 4);
+        double sumOdd = gridSum(f, a, h, 1, 2, n / 2);
+
+        // trapezoid rules with n/4, n/2 and n panels, combined into Simpson's rules with n/2 and n panels
+        double t4 = 4 * h * (ends / 2 + sum0);
+        double t2 = 2 * h * (ends / 2 + sum0 + sum2);
+        double t1 = h * (ends / 2 + sum0 + sum2 + sumOdd);
+        double s2 = (4 * t2 - t4) / 3;
+        double s1 = (4 * t1 - t2) / 3;
+        return new QuadratureResult(s1, Math.abs(s1 - s2) / 15, n + 1);
+    }
+
+    /**
+     *  Implements the composite Simpson's rule to a desired tolerance.
+     *  Starting from 2 panels, the number of panels is doubled until the error estimate |S_2n - S_n| / 15
+     *  is at most tolerance, or until doubling again would exceed maxPanels, so at most maxPanels + 1 points
+     *  are evaluated. Each level only evaluates f at the midpoints of the previous level's panels,
+     *  so no evaluation is repeated.
+     *
+     * @param f         Function to integrate
+     * @param a         Lower bound of integration
+     * @param b         Upper bound of integration
+     * @param tolerance Desired absolute accuracy
+     * @param maxPanels Maximum number of panels
+     * @return  QuadratureResult holding the integral, error estimate and number of evaluations.
+     *          If maxPanels was reached first, the error estimate is larger than tolerance.
+     */
+    public static QuadratureResult simpson(Function f, double a, double b, double tolerance, int maxPanels) {
+        return simpson(f.compile(), a, b, tolerance, maxPanels);
+    }
+
+    /**
+     *  Implements the composite Simpson's rule to a desired tolerance,
+     *  see simpson(Function, double, double, double, int).
+     *
+     * @param p         InterpolatingPolynomial to integrate
+     * @param a         Lower bound of integration
+     * @param b         Upper bound of integration
+     * @param tolerance Desired absolute accuracy
+     * @param maxPanels Maximum number of panels
+     * @return  QuadratureResult holding the integral, error estimate and number of evaluations
+     */
+    public static QuadratureResult simpson(InterpolatingPolynomial p, double a, double b, double tolerance, int maxPanels) {
+        return simpson(p::evaluate, a, b, tolerance, maxPanels);
+    }
+
+    private static QuadratureResult simpson(DoubleUnaryOperator f, double a, double b, double tolerance, int maxPanels) {
+        double trapezoid = (b - a) / 2 * (f.applyAsDouble(a) + f.applyAsDouble(b));
+        long evaluations = 2;
+        double previous = Double.NaN;
+        double error = Double.POSITIVE_INFINITY;
+        double simpson = trapezoid;
+        // n is a long so that doubling it past a maxPanels above 2^30 cannot overflow
+        for (long n = 2; n <= maxPanels; n *= 2) {
+            double h = (b - a) / n;
+            double next = trapezoid / 2 + h * gridSum(f, a, h, 1, 2, (int) (n / 2));
+            evaluations += n / 2;
+            simpson = (4 * next - trapezoid) / 3;
+            trapezoid = next;
+            if (!Double.isNaN(previous)) {
+                error = Math.abs(simpson - previous) / 15;
+                if (error <= tolerance)
+                    break;
+            }
+            previous = simpson;
+        }
+        return new QuadratureResult(simpson, error, evaluations);
+    }
+
+    /**
+     *  Implements the composite Gauss-Legendre rule with the given number of points on each of the given number
+     *  of panels. The error is estimated by also applying the rule to twice as many panels, and the result on the
+     *  finer panels is returned.
+     *
+     * @param f         Function to integrate
+     * @param a         Lower bound of integration
+     * @param b         Upper bound of integration
+     * @param points    Number of points of the rule, from 1 to MAX_GAUSS_POINTS
+     * @param panels    Number of panels
+     * @return  QuadratureResult holding the integral, error estimate and number of evaluations
+     */
+    public static QuadratureResult gaussLegendre(Function f, double a, double b, int points, int panels) {
+        return gaussLegendre(f.compile(), a, b, points, panels);
+    }
+
+    /**
+     *  Implements the composite Gauss-Legendre rule, see gaussLegendre(Function, double, double, int, int).
+     *
+     * @param p         InterpolatingPolynomial to integrate
+     * @param a         Lower bound of integration
+     * @param b         Upper bound of integration
+     * @param points    Number of points of the rule, from 1 to MAX_GAUSS_POINTS
+     * @param panels    Number of panels
+     * @return  QuadratureResult holding the integral, error estimate and number of evaluations
+     */
+    public static QuadratureResult gaussLegendre(InterpolatingPolynomial p, double a, double b, int points, int panels) {
+        return gaussLegendre(p::evaluate, a, b, points, panels);
+    }
+
+    private static QuadratureResult gaussLegendre(DoubleUnaryOperator f, double a, double b, int points, int panels) {
+        checkPoints(points);
+        panels = Math.max(1, panels);
+        double coarse = panelSum(f, a, (b - a) / panels, points, 0, panels);
+        double fine = panelSum(f, a, (b - a) / (2 * panels), points, 0, 2 * panels);
+        return new QuadratureResult(fine, Math.abs(fine - coarse), 3L * points * panels);
+    }
+
+    /**
+     *  Implements the adaptive Gauss-Kronrod method to a desired tolerance.
+     *  Each panel is integrated with the 15-point Kronrod rule, and its error is estimated by the difference from
+     *  the embedded 7-point Gauss rule, which needs no further evaluations. Panels whose error is larger than their
+     *  share of the tolerance (in proportion to their width) are halved, and the halves are integrated in parallel.
+     *
+     * @param f         Function to integrate
+     * @param a         Lower bound of integration
+     * @param b         Upper bound of integration
+     * @param tolerance Desired absolute accuracy
+     * @return  QuadratureResult holding the integral, error estimate and number of evaluations
+     */
+    public static QuadratureResult gaussKronrod(Function f, double a, double b, double tolerance) {
+        return gaussKronrod(f.compile(), a, b, tolerance, MAX_EVALUATIONS);
+    }
+
+    /**
+     *  Implements the adaptive Gauss-Kronrod method to a desired tolerance, using at most about maxEvaluations
+     *  evaluations of f, see gaussKronrod(Function, double, double, double). Once the budget is spent, no
+     *  more panels are halved and the sum over the current panels is returned with its error estimate, which
+     *  may then exceed the tolerance. Since panels are halved in parallel, which panels get the last of the
+     *  budget may vary between runs.
+     *
+     * @param f                 Function to integrate
+     * @param a                 Lower bound of integration
+     * @param b                 Upper bound of integration
+     * @param tolerance         Desired absolute accuracy
+     * @param maxEvaluations    Maximum number of evaluations of f, at least the 15 of the first panel
+     * @return  QuadratureResult holding the integral, error estimate and number of evaluations
+     */
+    public static QuadratureResult gaussKronrod(Function f, double a, double b, double tolerance, long maxEvaluations) {
+        return gaussKronrod(f.compile(), a, b, tolerance, maxEvaluations);
+    }
+
+    /**
+     *  Implements the adaptive Gauss-Kronrod method to a desired tolerance,
+     *  see gaussKronrod(Function, double, double, double).
+     *
+     * @param p         InterpolatingPolynomial to integrate
+     * @param a         Lower bound of integration
+     * @param b         Upper bound of integration
+     * @param tolerance Desired absolute accuracy
+     * @return  QuadratureResult holding the integral, error estimate and number of evaluations
+     */
+    public static QuadratureResult gaussKronrod(InterpolatingPolynomial p, double a, double b, double tolerance) {
+        return gaussKronrod(p::evaluate, a, b, tolerance, MAX_EVALUATIONS);
+    }
+
+    /**
+     *  Implements the adaptive Gauss-Kronrod method with a budget of evaluations,
+     *  see gaussKronrod(Function, double, double, double, long).
+     *
+     * @param p                 InterpolatingPolynomial to integrate
+     * @param a                 Lower bound of integration
+     * @param b                 Upper bound of integration
+     * @param tolerance         Desired absolute accuracy
+     * @param maxEvaluations    Maximum number of evaluations of p, at least the 15 of the first panel
+     * @return  QuadratureResult holding the integral, error estimate and number of evaluations
+     */
+    public static QuadratureResult gaussKronrod(InterpolatingPolynomial p, double a, double b, double tolerance,
+                                                long maxEvaluations) {
+        return gaussKronrod(p::evaluate, a, b, tolerance, maxEvaluations);
+    }
+
+    private static QuadratureResult gaussKronrod(DoubleUnaryOperator f, double a, double b, double tolerance,
+                                                 long maxEvaluations) {
+        if (a == b)
+            return new QuadratureResult(0, 0, 0);
+        double density = tolerance / Math.abs(b - a);
+        AtomicLong budget = new AtomicLong(maxEvaluations - 15);
+        return ForkJoinPool.commonPool().invoke(new KronrodPanel(f, a, b, density, 0, budget));
+    }
+
+    /**
+     * Returns the 15-point Kronrod rule and the error estimate from the embedded 7-point Gauss rule on [a, b].
+     */
+    private static QuadratureResult kronrod(DoubleUnaryOperator f, double a, double b) {
+        double center = (a + b) / 2;
+        double half = (b - a) / 2;
+        double fc = f.applyAsDouble(center);
+        double kronrod = fc * KRONROD_WEIGHTS[7];
+        double gauss = fc * KRONROD_GAUSS_WEIGHTS[3];
+        for (int i = 0; i < 7; i++) {
+            double dx = half * KRONROD_NODES[i];
+            double sum = f.applyAsDouble(center - dx) + f.applyAsDouble(center + dx);
+            kronrod += sum * KRONROD_WEIGHTS[i];
+            if (i % 2 == 1)
+                gauss += sum * KRONROD_GAUSS_WEIGHTS[i / 2];
+        }
+        return new QuadratureResult(kronrod * half, Math.abs((kronrod - gauss) * half), 15);
+    }
+
+    /**
+     * Returns the sum of f(a + (start + k*stride)*h) for k = 0 ... count - 1,
+     * split across the common ForkJoinPool if count is large.
+     */
+    private static double gridSum(DoubleUnaryOperator f, double a, double h, int start, int stride, int count) {
+        if (count <= 0)
+            return 0;
+        GridSum task = new GridSum(f, a, h, start, stride, 0, count);
+        return count > PARALLEL_THRESHOLD ? ForkJoinPool.commonPool().invoke(task) : task.compute();
+    }
+
+    /**
+     * Returns the sum of the n-point Gauss-Legendre rule over panels [from, to) of width h starting at a,
+     * split across the common ForkJoinPool if there are many evaluations.
+     */
+    private static double panelSum(DoubleUnaryOperator f, double a, double h, int n, int from, int to) {
+        PanelSum task = new PanelSum(f, a, h, n, from, to);
+        return (long) (to - from) * n > PARALLEL_THRESHOLD ? ForkJoinPool.commonPool().invoke(task) : task.compute();
+    }
+
+    /**
+     * Task that halves a grid sum until each part has at most PARALLEL_THRESHOLD points.
+     */
+    private static final class GridSum extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 1L;
+
+        private final DoubleUnaryOperator f;
+        private final double a;
+        private final double h;
+        private final int start;
+        private final int stride;
+        private final int from;
+        private final int to;
+
+        GridSum(DoubleUnaryOperator f, double a, double h, int start, int stride, int from, int to) {
+            this.f = f;
+            this.a = a;
+            this.h = h;
+            this.start = start;
+            this.stride = stride;
+            this.from = from;
+            this.to = to;
+        }
+
+        protected Double compute() {
+            if (to - from > PARALLEL_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                GridSum left = new GridSum(f, a, h, start, stride, from, mid);
+                left.fork();
+                double right = new GridSum(f, a, h, start, stride, mid, to).compute();
+                return left.join() + right;
+            }
+            double sum = 0;
+            for (int k = from; k < to; k++)
+                sum += f.applyAsDouble(a + (start + (double) k * stride) * h);
+            return sum;
+        }
+    }
+
+    /**
+     * Task that halves a composite Gauss-Legendre rule until each part has at most PARALLEL_THRESHOLD evaluations.
+     */
+    private static final class PanelSum extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 1L;
+
+        private final DoubleUnaryOperator f;
+        private final double a;
+        private final double h;
+        private final int n;
+        private final int from;
+        private final int to;
+
+        PanelSum(DoubleUnaryOperator f, double a, double h, int n, int from, int to) {
+            this.f = f;
+            this.a = a;
+            this.h = h;
+            this.n = n;
+            this.from = from;
+            this.to = to;
+        }
+
+        protected Double compute() {
+            if (to - from > 1 && (long) (to - from) * n > PARALLEL_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                PanelSum left = new PanelSum(f, a, h, n, from, mid);
+                left.fork();
+                double right = new PanelSum(f, a, h, n, mid, to).compute();
+                return left.join() + right;
+            }
+            double[] x = GAUSS_NODES[n];
+            double[] w = GAUSS_WEIGHTS[n];
+            double sum = 0;
+            for (int i = from; i < to; i++) {
+                double center = a + (i + 0.5) * h;
+                double panel = 0;
+                for (int j = 0; j < n; j++)
+                    panel += w[j] * f.applyAsDouble(center + h / 2 * x[j]);
+                sum += panel;
+            }
+            return sum * h / 2;
+        }
+    }
+
+    /**
+     * Task that integrates one panel with the Kronrod rule, and halves it in parallel if the error is too large.
+     */
+    private static final class KronrodPanel extends RecursiveTask<QuadratureResult> {
+        private static final long serialVersionUID = 1L;
+
+        private final DoubleUnaryOperator f;
+        private final double a;
+        private final double b;
+        /** Tolerance per unit width */
+        private final double density;
+        private final int depth;
+        /** Evaluations left to all panels, shared by every task of one integration */
+        private final AtomicLong budget;
+
+        KronrodPanel(DoubleUnaryOperator f, double a, double b, double density, int depth, AtomicLong budget) {
+            this.f = f;
+            this.a = a;
+            this.b = b;
+            this.density = density;
+            this.depth = depth;
+            this.budget = budget;
+        }
+
+        protected QuadratureResult compute() {
+            QuadratureResult result = kronrod(f, a, b);
+            double mid = (a + b) / 2;
+            if (result.getErrorEstimate() <= density * Math.abs(b - a) || depth >= MAX_DEPTH || mid == a || mid == b)
+                return result;
+            // reserve the evaluations of both halves before splitting, or keep this panel if the budget is spent
+            if (budget.addAndGet(-30) < 0) {
+                budget.addAndGet(30);
+                return result;
+            }
+            KronrodPanel left = new KronrodPanel(f, a, mid, density, depth + 1, budget);
+            left.fork();
+            QuadratureResult right = new KronrodPanel(f, mid, b, density, depth + 1, budget).compute();
+            QuadratureResult both = left.join().plus(right);
+            return new QuadratureResult(both.getValue(), both.getErrorEstimate(), both.getEvaluations() + 15);
+        }
+    }
+}
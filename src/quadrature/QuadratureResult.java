@@ -0,0 +1,70 @@
+package quadrature;
+
+/**
+ *  Class QuadratureResult
+ *
+ *  This class holds the result of a numerical integration: the approximate value of the integral,
+ *  an estimate of its absolute error, and the number of times the integrand was evaluated.
+ */
+public final class QuadratureResult {
+    /** Approximate value of the integral */
+    private final double value;
+    /** Estimate of the absolute error */
+    private final double errorEstimate;
+    /** Number of evaluations of the integrand */
+    private final long evaluations;
+
+    /**
+     * Constructor for QuadratureResult.
+     * @param value         approximate value of the integral
+     * @param errorEstimate estimate of the absolute error
+     * @param evaluations   number of evaluations of the integrand
+     */
+    public QuadratureResult(double value, double errorEstimate, long evaluations) {
+        this.value = value;
+        this.errorEstimate = errorEstimate;
+        this.evaluations = evaluations;
+    }
+
+    /**
+     * Returns the approximate value of the integral
+     * @return value of the integral
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the estimate of the absolute error
+     * @return error estimate
+     */
+    public double getErrorEstimate() {
+        return errorEstimate;
+    }
+
+    /**
+     * Returns the number of evaluations of the integrand
+     * @return number of evaluations
+     */
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * Returns the sum of this result and another over an adjacent interval
+     * @param other result over an adjacent interval
+     * @return combined result
+     */
+    QuadratureResult plus(QuadratureResult other) {
+        return new QuadratureResult(value + other.value, errorEstimate + other.errorEstimate,
+                                    evaluations + other.evaluations);
+    }
+
+    /**
+     * Returns a string representation of this result.
+     * @return String representation of this result
+     */
+    public String toString() {
+        return value + " +/- " + errorEstimate + " (" + evaluations + " evaluations)";
+    }
+}
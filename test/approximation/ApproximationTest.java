@@ -0,0 +1,149 @@
+package approximation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import function.Function;
+import function.terms.*;
+import org.junit.jupiter.api.Test;
+
+class ApproximationTest {
+    private static final double SQRT2 = Math.sqrt(2);
+
+    /** Returns the polynomial with coefficients c[k] of x^k */
+    static Function polynomial(double... c) {
+        Function f = new Function();
+        for (int k = 0; k < c.length; k++)
+            if (c[k] != 0)
+                f.addTerm(new Power(c[k], k));
+        return f;
+    }
+
+    /** x^2 - 2 */
+    private static Function sqrt2() {
+        return polynomial(-2, 0, 1);
+    }
+
+    @Test
+    void newtonMethodConvergesQuadratically() {
+        assertEquals(SQRT2, Approximation.newtonMethod(sqrt2(), 1, 6), 1e-15);
+        assertEquals(SQRT2, Approximation.newtonMethodBound(sqrt2(), 1, 12), 1e-12);
+    }
+
+    @Test
+    void newtonMethodOnTranscendentalFunction() {
+        // cos(x) = x
+        Function f = new Function(new Cos(1, 1));
+        f.addTerm(new Power(-1, 1));
+        assertEquals(0.7390851332151607, Approximation.newtonMethod(f, 1, 8), 1e-15);
+    }
+
+    @Test
+    void halleyMethodConvergesCubically() {
+        // e^x - 3: one step from 1 cuts the error of 0.1 to below 1e-3
+        Function f = new Function(new Exp(1, 1));
+        f.addTerm(new Power(-3, 0));
+        double ln3 = Math.log(3);
+        assertEquals(ln3, Approximation.halleyMethod(f, 0, 4), 1e-15);
+        assertTrue(Math.abs(Approximation.halleyMethod(f, 1, 1) - ln3) < 1e-3);
+        assertEquals(ln3, Approximation.halleyMethodBound(f, 0, 13), 1e-13);
+    }
+
+    @Test
+    void householderMethodOfEachDegree() {
+        // x^3 - 2x - 5, Wallis's example
+        Function f = polynomial(-5, -2, 0, 1);
+        double root = 2.0945514815423265;
+        for (int d = 1; d <= 4; d++) {
+            assertEquals(root, Approximation.householderMethod(f, 2, d, 8), 1e-15, "d = " + d);
+            assertEquals(root, Approximation.householderMethodBound(f, 2, d, 12), 1e-12, "d = " + d);
+        }
+        assertEquals(Approximation.newtonMethod(sqrt2(), 1, 3), Approximation.householderMethod(sqrt2(), 1, 1, 3), 1e-15);
+        assertThrows(IllegalArgumentException.class, () -> Approximation.householderMethod(f, 2, 0, 8));
+        assertThrows(IllegalArgumentException.class, () -> Approximation.householderMethodBound(f, 2, -1, 12));
+    }
+
+    @Test
+    void bisectMethodHalvesToTheBound() {
+        assertEquals(SQRT2, Approximation.bisectMethod(sqrt2(), 0, 2, 60), 1e-15);
+        assertEquals(SQRT2, Approximation.bisectMethodBound(sqrt2(), 0, 2, 10), 1e-10);
+    }
+
+    @Test
+    void bisectMethodSearchesForABracket() {
+        // f(-2) and f(2) are both positive, but the interval holds the roots -1 and 1
+        double root = Approximation.bisectMethodBound(polynomial(-1, 0, 1), -2, 2, 12);
+        assertEquals(1, Math.abs(root), 1e-12);
+        assertEquals(1, Math.abs(Approximation.bisectMethod(polynomial(-1, 0, 1), -2, 2, 60)), 1e-12);
+    }
+
+    @Test
+    void bisectMethodBoundAgreesWithFindAllRoots() {
+        // both refine the bracket [0, 2] with the same bisection
+        double[] roots = Approximation.findAllRoots(sqrt2(), 0, 2, 1e-10, 1);
+        assertArrayEquals(new double[] {Approximation.bisectMethodBound(sqrt2(), 0, 2, 10)}, roots);
+    }
+
+    @Test
+    void bisectMethodWithoutRoot() {
+        assertEquals(-1, Approximation.bisectMethodBound(polynomial(1, 0, 1), -2, 3, 8));
+    }
+
+    @Test
+    void findAllRootsOfSine() {
+        double[] roots = Approximation.findAllRoots(new Function(new Sin(1, 1)), -0.5, 10, 1e-12);
+        assertEquals(4, roots.length);
+        for (int k = 0; k < roots.length; k++)
+            assertEquals(k * Math.PI, roots[k], 1e-11);
+    }
+
+    @Test
+    void findAllRootsWithoutRootsAndOnReversedInterval() {
+        assertEquals(0, Approximation.findAllRoots(polynomial(1, 0, 1), -10, 10, 1e-12).length);
+        double[] roots = Approximation.findAllRoots(polynomial(-1, 0, 1), 10, -10, 1e-12, 64);
+        assertArrayEquals(new double[] {-1, 1}, roots, 1e-11);
+    }
+
+    @Test
+    void findAllRootsKeepsExactZeros() {
+        // x^3 - x is exactly zero at the cell boundaries -1, 0 and 1
+        double[] roots = Approximation.findAllRoots(polynomial(0, -1, 0, 1), -2, 2, 1e-12, 8);
+        assertArrayEquals(new double[] {-1, 0, 1}, roots, 1e-12);
+    }
+
+    @Test
+    void findAllRootsFindsCloseRootsInOneCell() {
+        // the roots 0.51 and 0.53 share the cell [0.5, 0.5625] without a sign change at its ends
+        double[] roots = Approximation.findAllRoots(polynomial(0.2703, -1.04, 1), 0, 1, 1e-13, 16);
+        assertArrayEquals(new double[] {0.51, 0.53}, roots, 1e-12);
+    }
+
+    @Test
+    void brentMethodConvergesFasterThanBisection() {
+        RootResult result = Approximation.brentMethod(polynomial(-5, -2, 0, 1), 2, 3, 1e-14, 100);
+        assertTrue(result.isConverged());
+        assertEquals(RootResult.Status.CONVERGED, result.getStatus());
+        assertEquals(2.0945514815423265, result.getRoot(), 1e-14);
+        assertTrue(result.getEvaluations() < 20, result.toString());
+    }
+
+    @Test
+    void brentMethodReportsMissingBracketAndIterationLimit() {
+        RootResult none = Approximation.brentMethod(polynomial(1, 0, 1), -1, 1, 1e-12, 100);
+        assertEquals(RootResult.Status.NO_BRACKET, none.getStatus());
+        assertFalse(none.isConverged());
+        assertTrue(Double.isNaN(none.getRoot()));
+
+        Function f = new Function(new Exp(1, 1));
+        f.addTerm(new Power(-3, 0));
+        RootResult limited = Approximation.brentMethod(f, 0, 10, 1e-15, 2);
+        assertEquals(RootResult.Status.MAX_ITERATIONS, limited.getStatus());
+        assertEquals(2, limited.getIterations());
+    }
+
+    @Test
+    void brentMethodAcceptsExactZeroAtAnEnd() {
+        RootResult result = Approximation.brentMethod(polynomial(-1, 1), 1, 4, 1e-12, 50);
+        assertTrue(result.isConverged());
+        assertEquals(1, result.getRoot(), 1e-12);
+    }
+}
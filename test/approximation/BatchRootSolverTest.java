@@ -0,0 +1,137 @@
+package approximation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import function.terms.Cos;
+import function.terms.Exp;
+import function.terms.Log;
+import function.terms.Power;
+import function.terms.Term;
+import org.junit.jupiter.api.Test;
+
+class BatchRootSolverTest {
+    /** x^2 + p*x + q */
+    private static final BatchRootSolver QUADRATIC =
+        new BatchRootSolver(new Power(1, 2), new Power(1, 1), new Power(1, 0));
+
+    @Test
+    void newtonMatchesClosedForm() {
+        int n = 2 * BatchRootSolver.PARALLEL_THRESHOLD + 3;
+        double[][] a = new double[3][n];
+        double[] starts = new double[n];
+        for (int i = 0; i < n; i++) {
+            double p = -1 - i * 1e-3;
+            a[0][i] = 1;
+            a[1][i] = p;
+            a[2][i] = -1;
+            starts[i] = 20;
+        }
+        double[] roots = new double[n];
+        byte[] status = new byte[n];
+        QUADRATIC.newtonMethod(a, null, starts, roots, status, 1e-14, 50);
+        for (int i = 0; i < n; i++) {
+            double p = a[1][i];
+            assertEquals(BatchRootSolver.CONVERGED, status[i], "problem " + i);
+            assertEquals((-p + Math.sqrt(p * p + 4)) / 2, roots[i], 1e-13, "problem " + i);
+        }
+    }
+
+    @Test
+    void bisectionMatchesClosedFormAndReportsMissingBrackets() {
+        double[][] a = {{1, 1, 1}, {0, 0, 0}, {-2, -9, 1}};
+        double[] lo = {0, 0, 0};
+        double[] hi = {2, 4, 2};
+        double[] roots = new double[3];
+        byte[] status = new byte[3];
+        QUADRATIC.bisectMethod(a, null, lo, hi, roots, status, 1e-12, 100);
+        assertEquals(BatchRootSolver.CONVERGED, status[0]);
+        assertEquals(Math.sqrt(2), roots[0], 1e-12);
+        assertEquals(BatchRootSolver.CONVERGED, status[1]);
+        assertEquals(3, roots[1], 1e-12);
+        assertEquals(BatchRootSolver.NO_BRACKET, status[2]);
+        assertTrue(Double.isNaN(roots[2]));
+    }
+
+    @Test
+    void bisectionSwapsReversedEnds() {
+        double[][] a = {{1, 1}, {0, 0}, {-2, -2}};
+        double[] roots = new double[2];
+        byte[] status = new byte[2];
+        QUADRATIC.bisectMethod(a, null, new double[] {2, 0}, new double[] {0, 2}, roots, status, 1e-12, 100);
+        assertArrayEquals(new byte[2], status);
+        assertEquals(Math.sqrt(2), roots[0], 1e-12);
+        assertEquals(roots[1], roots[0]);
+    }
+
+    @Test
+    void iterationLimitAndDivergence() {
+        double[][] a = {{1, 1}, {0, 0}, {-2, 1}};
+        double[] roots = new double[2];
+        byte[] status = new byte[2];
+        QUADRATIC.newtonMethod(a, null, new double[] {100, 0}, roots, status, 1e-15, 3);
+        assertEquals(BatchRootSolver.MAX_ITERATIONS, status[0]);
+        // f'(0) = 0
+        assertEquals(BatchRootSolver.DIVERGED, status[1]);
+    }
+
+    @Test
+    void perProblemExponentsAndRootOfZero() {
+        // x^b - c with b given per problem; sqrt(x) at its root 0 is not differentiable
+        BatchRootSolver solver = new BatchRootSolver(new Power(1, 1), new Power(1, 0));
+        double[][] a = {{1, 1, 1}, {-8, -81, 0}};
+        double[][] b = {{3, 4, 0.5}, {0, 0, 0}};
+        double[] roots = new double[3];
+        byte[] status = new byte[3];
+        solver.bisectMethod(a, b, new double[] {0, 0, 0}, new double[] {4, 4, 1}, roots, status, 1e-12, 200);
+        assertArrayEquals(new byte[3], status);
+        assertArrayEquals(new double[] {2, 3, 0}, roots, 1e-11);
+    }
+
+    @Test
+    void shapeKeepsDuplicateKinds() {
+        // e^x + e^(2x) - 6 = 0 at e^x = 2, with both Exp terms kept as given
+        BatchRootSolver solver = new BatchRootSolver(new Exp(1, 1), new Exp(1, 2), new Power(1, 0));
+        assertEquals(3, solver.getTermCount());
+        double[][] a = {{1}, {1}, {-6}};
+        double[] roots = new double[1];
+        byte[] status = new byte[1];
+        solver.newtonMethod(a, null, new double[] {0}, roots, status, 1e-14, 50);
+        assertEquals(BatchRootSolver.CONVERGED, status[0]);
+        assertEquals(Math.log(2), roots[0], 1e-14);
+    }
+
+    @Test
+    void logarithmAndCosine() {
+        BatchRootSolver solver = new BatchRootSolver(new Log(1, 1), new Cos(1, 1), new Power(1, 1));
+        double[][] a = {{1, 0}, {0, 1}, {0, -1}};
+        double[] roots = new double[2];
+        byte[] status = new byte[2];
+        solver.newtonMethod(a, null, new double[] {0.5, 1}, roots, status, 1e-14, 50);
+        assertArrayEquals(new byte[2], status);
+        assertEquals(1, roots[0], 1e-14);
+        assertEquals(0.7390851332151607, roots[1], 1e-14);
+    }
+
+    @Test
+    void argumentsAreChecked() {
+        double[] x = new double[2];
+        byte[] status = new byte[1];
+        double[][] a = new double[3][2];
+        assertThrows(IllegalArgumentException.class,
+                     () -> QUADRATIC.newtonMethod(a, null, x, x, status, 1e-12, 10));
+        assertThrows(IllegalArgumentException.class,
+                     () -> QUADRATIC.newtonMethod(new double[2][2], null, x, x, new byte[2], 1e-12, 10));
+        assertThrows(IllegalArgumentException.class, () -> new BatchRootSolver(new Power(1, 2), new Identity()));
+    }
+
+    /** A term of none of the five forms */
+    private static final class Identity extends Term {
+        public double evaluate(double x) {
+            return x;
+        }
+
+        public Term derivative() {
+            return new Power(1, 0);
+        }
+    }
+}
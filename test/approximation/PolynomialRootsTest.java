@@ -0,0 +1,87 @@
+package approximation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import function.Function;
+import function.terms.*;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class PolynomialRootsTest {
+    /** Returns the real parts of roots sorted, after checking that their imaginary parts vanish */
+    private static double[] realRoots(double[][] roots, double tolerance) {
+        for (double im : roots[1])
+            assertEquals(0, im, tolerance);
+        double[] re = roots[0].clone();
+        Arrays.sort(re);
+        return re;
+    }
+
+    @Test
+    void quadraticWithComplexRoots() {
+        // x^2 + 2x + 5 = (x + 1 - 2i)(x + 1 + 2i)
+        double[][] roots = PolynomialRoots.aberthMethod(new double[] {5, 2, 1});
+        assertEquals(2, roots[0].length);
+        for (int i = 0; i < 2; i++) {
+            assertEquals(-1, roots[0][i], 1e-14);
+            assertEquals(2, Math.abs(roots[1][i]), 1e-14);
+        }
+        assertEquals(0, roots[1][0] + roots[1][1], 1e-14);
+    }
+
+    @Test
+    void wilkinsonPolynomial() {
+        double[] p = {1};
+        for (int k = 1; k <= 12; k++) {
+            double[] q = new double[p.length + 1];
+            for (int i = 0; i < p.length; i++) {
+                q[i + 1] += p[i];
+                q[i] -= k * p[i];
+            }
+            p = q;
+        }
+        double[] roots = realRoots(PolynomialRoots.aberthMethod(p), 1e-6);
+        for (int k = 1; k <= 12; k++)
+            assertEquals(k, roots[k - 1], 1e-6 * k);
+    }
+
+    @Test
+    void functionAndLeadingZeros() {
+        double[] roots = realRoots(PolynomialRoots.aberthMethod(ApproximationTest.polynomial(-6, 11, -6, 1)), 1e-12);
+        assertArrayEquals(new double[] {1, 2, 3}, roots, 1e-12);
+        // trailing zero coefficients of high powers do not raise the degree
+        assertEquals(1, PolynomialRoots.aberthMethod(new double[] {-3, 1, 0, 0})[0].length);
+    }
+
+    @Test
+    void zeroRootsAndConstants() {
+        double[] roots = realRoots(PolynomialRoots.aberthMethod(new double[] {0, 0, -4, 1}), 1e-15);
+        assertArrayEquals(new double[] {0, 0, 4}, roots, 1e-14);
+        assertEquals(0, PolynomialRoots.aberthMethod(new double[] {7})[0].length);
+    }
+
+    @Test
+    void nonPolynomialFunctionIsRejected() {
+        Function trig = ApproximationTest.polynomial(0, 0, 1);
+        trig.addTerm(new Sin(1, 1));
+        assertThrows(IllegalArgumentException.class, () -> PolynomialRoots.aberthMethod(trig));
+        Function root = ApproximationTest.polynomial(-1);
+        root.addTerm(new Power(1, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> PolynomialRoots.aberthMethod(root));
+    }
+
+    @Test
+    void batchMatchesSingleSolves() {
+        int n = 3 * PolynomialRoots.PARALLEL_THRESHOLD;
+        double[][] polynomials = new double[n][];
+        for (int i = 0; i < n; i++)
+            polynomials[i] = new double[] {-i * (i + 1.0), -1, 1};     // (x - (i + 1))(x + i)
+        double[][][] roots = PolynomialRoots.aberthMethod(polynomials);
+        assertEquals(n, roots.length);
+        for (int i = 0; i < n; i++) {
+            double[] re = realRoots(roots[i], 1e-9);
+            assertEquals(-i, re[0], 1e-9 * (i + 1));
+            assertEquals(i + 1, re[1], 1e-9 * (i + 1));
+        }
+    }
+}
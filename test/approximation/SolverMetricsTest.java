@@ -0,0 +1,82 @@
+package approximation;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import function.Function;
+import function.FunctionMetrics;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SolverMetricsTest {
+    @BeforeEach
+    void reset() {
+        assumeTrue(SolverMetrics.ENABLED, "run with -D" + FunctionMetrics.PROPERTY + "=true");
+        SolverMetrics.reset();
+        FunctionMetrics.reset();
+    }
+
+    @Test
+    void countsSolvesIterationsAndEvaluations() {
+        Function f = ApproximationTest.polynomial(-2, 0, 1);
+        Approximation.newtonMethod(f, 1, 6);
+        Approximation.newtonMethod(f, 1, 4);
+        assertEquals(2, SolverMetrics.getSolves(SolverMetrics.Method.NEWTON));
+        assertEquals(10, SolverMetrics.getIterations(SolverMetrics.Method.NEWTON));
+        assertEquals(10, SolverMetrics.getEvaluations(SolverMetrics.Method.NEWTON));
+        assertEquals(0, SolverMetrics.getFailures(SolverMetrics.Method.NEWTON));
+        long latencies = 0;
+        for (long count : SolverMetrics.getLatencyHistogram(SolverMetrics.Method.NEWTON))
+            latencies += count;
+        assertEquals(2, latencies);
+
+        Approximation.bisectMethod(f, 2, 3, 10);
+        assertEquals(1, SolverMetrics.getFailures(SolverMetrics.Method.BISECTION));
+        assertEquals(0, SolverMetrics.getSolves(SolverMetrics.Method.BRENT));
+    }
+
+    @Test
+    void aberthSolveConvergingOnItsLastIterationIsNotAFailure() {
+        double[] p = {-6, 11, -6, 1};
+        PolynomialRoots.aberthMethod(p);
+        long needed = SolverMetrics.getIterations(SolverMetrics.Method.ABERTH);
+        assertTrue(needed > 1);
+        SolverMetrics.reset();
+        PolynomialRoots.aberthMethod(p, (int) needed);
+        assertEquals(needed, SolverMetrics.getIterations(SolverMetrics.Method.ABERTH));
+        assertEquals(0, SolverMetrics.getFailures(SolverMetrics.Method.ABERTH));
+        PolynomialRoots.aberthMethod(p, (int) needed - 1);
+        assertEquals(1, SolverMetrics.getFailures(SolverMetrics.Method.ABERTH));
+    }
+
+    @Test
+    void notifiesListeners() {
+        List<SolverMetrics.Method> methods = new ArrayList<>();
+        SolverListener listener = (method, iterations, evaluations, nanos, converged) -> {
+            assertTrue(converged);
+            assertTrue(nanos >= 0);
+            methods.add(method);
+        };
+        SolverMetrics.addListener(listener);
+        try {
+            Function f = ApproximationTest.polynomial(-2, 0, 1);
+            Approximation.halleyMethod(f, 1, 3);
+            Approximation.bisectMethodBound(f, 0, 2, 8);
+        } finally {
+            SolverMetrics.removeListener(listener);
+        }
+        assertEquals(List.of(SolverMetrics.Method.HOUSEHOLDER, SolverMetrics.Method.BISECTION), methods);
+    }
+
+    @Test
+    void countsFunctionEvaluationsAndDerivatives() {
+        Function f = ApproximationTest.polynomial(1, 2, 3);
+        f.evaluate(1);
+        f.evaluate(new double[5], new double[5]);
+        f.derivative(1);
+        assertEquals(6, FunctionMetrics.getEvaluations());
+        assertEquals(1, FunctionMetrics.getDerivatives());
+    }
+}
@@ -0,0 +1,193 @@
+package function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import function.terms.*;
+import org.junit.jupiter.api.Test;
+
+class CompiledFunctionTest {
+    /** 3x^5 - 2x^2 + x^(-1/2) + 2e^(0.3x) - ln(2x) + sin(3x) + 0.5cos(x) */
+    static Function mixed() {
+        Function f = new Function(new Power(3, 5));
+        f.addTerm(new Power(-2, 2));
+        f.addTerm(new Power(1, -0.5));
+        f.addTerm(new Exp(2, 0.3));
+        f.addTerm(new Log(-1, 2));
+        f.addTerm(new Sin(1, 3));
+        f.addTerm(new Cos(0.5, 1));
+        return f;
+    }
+
+    @Test
+    void matchesFunction() {
+        Function f = mixed();
+        CompiledFunction g = f.compile();
+        assertEquals(7, g.getSize());
+        for (double x = 0.1; x < 4; x += 0.13) {
+            double expected = f.evaluate(x);
+            assertEquals(expected, g.evaluate(x), 1e-12 * Math.max(1, Math.abs(expected)), "x = " + x);
+            assertEquals(g.evaluate(x), g.applyAsDouble(x));
+        }
+    }
+
+    @Test
+    void evaluatesTermsOfOtherSubclasses() {
+        Function f = new Function(new Power(2, 1));
+        f.addTerm(new Square());
+        CompiledFunction g = f.compile();
+        assertEquals(2 * 3 + 9, g.evaluate(3), 1e-15);
+    }
+
+    @Test
+    void isASnapshot() {
+        Function f = new Function(new Power(1, 2));
+        CompiledFunction g = f.compile();
+        f.addTerm(new Power(1, 0));
+        assertEquals(4, g.evaluate(2));
+        assertEquals(5, f.evaluate(2));
+        assertEquals(0, new Function().compile().evaluate(1));
+    }
+
+    @Test
+    void evaluatesValueAndDerivativeTogether() {
+        Function f = mixed();
+        f.addTerm(new Square());
+        CompiledFunction g = f.compile();
+        double[] fused = new double[2];
+        double[] compiled = new double[2];
+        for (double x = 0.1; x < 4; x += 0.13) {
+            double value = f.evaluate(x);
+            double slope = f.derivative(1).evaluate(x);
+            f.evaluateWithDerivative(x, fused);
+            g.evaluateWithDerivative(x, compiled);
+            assertEquals(value, fused[0], 1e-12 * Math.max(1, Math.abs(value)), "x = " + x);
+            assertEquals(slope, fused[1], 1e-12 * Math.max(1, Math.abs(slope)), "x = " + x);
+            assertEquals(value, compiled[0], 1e-12 * Math.max(1, Math.abs(value)), "x = " + x);
+            assertEquals(slope, compiled[1], 1e-12 * Math.max(1, Math.abs(slope)), "x = " + x);
+        }
+    }
+
+    @Test
+    void evaluatesDerivativesOfEachOrderTogether() {
+        Function f = mixed();
+        f.addTerm(new Square());
+        CompiledFunction g = f.compile();
+        double[] taylor = new double[5];
+        double[] compiled = new double[5];
+        for (double x = 0.1; x < 4; x += 0.13) {
+            f.evaluateDerivatives(x, taylor);
+            g.evaluateDerivatives(x, compiled);
+            for (int j = 0; j < taylor.length; j++) {
+                double expected = f.derivative(j).evaluate(x);
+                assertEquals(expected, taylor[j], 1e-11 * Math.max(1, Math.abs(expected)), "order " + j + " at " + x);
+                assertEquals(expected, compiled[j], 1e-11 * Math.max(1, Math.abs(expected)), "order " + j + " at " + x);
+            }
+        }
+    }
+
+    @Test
+    void batchEvaluationMatchesPointwise() {
+        Function f = mixed();
+        CompiledFunction g = f.compile();
+        int n = 3 * CompiledFunction.PARALLEL_THRESHOLD + 5;
+        double[] xs = new double[n];
+        for (int i = 0; i < n; i++)
+            xs[i] = 0.05 + i * 1e-4;
+        double[] out = new double[n];
+        g.evaluate(xs, out);
+        for (int i = 0; i < n; i += 97)
+            assertEquals(g.evaluate(xs[i]), out[i], 0, "x = " + xs[i]);
+        double[] viaFunction = new double[n];
+        f.evaluate(xs, viaFunction);
+        assertArrayEquals(out, viaFunction);
+    }
+
+    @Test
+    void batchEvaluationOfRange() {
+        CompiledFunction g = mixed().compile();
+        double[] xs = new double[200];
+        for (int i = 0; i < xs.length; i++)
+            xs[i] = 0.5 + i * 0.01;
+        double[] part = new double[10];
+        g.evaluate(xs, 100, part, 2, 5);
+        assertEquals(0, part[1]);
+        for (int i = 0; i < 5; i++)
+            assertEquals(g.evaluate(xs[100 + i]), part[2 + i], 0);
+        assertEquals(0, part[7]);
+    }
+
+    /** x^2, as a term of none of the five forms */
+    /** Sum of c[k] x^k term by term, with a non-integer power alongside */
+    private static Function polynomialOfDegree(int degree) {
+        Function f = new Function(new Power(0.5, 2.5));
+        for (int k = 0; k <= degree; k++)
+            f.addTerm(new Power((k % 3 - 1) * 0.7 + 1.0 / (k + 1), k));
+        return f;
+    }
+
+    @Test
+    void polynomialsOfEveryDegreeMatchTermByTerm() {
+        for (int degree = 0; degree <= CompiledFunction.MAX_POLYNOMIAL_DEGREE + 2; degree++) {
+            Function f = polynomialOfDegree(degree);
+            CompiledFunction g = f.compile();
+            double[] fused = new double[2];
+            double[] taylor = new double[4];
+            double[] out = new double[64];
+            double[] xs = new double[64];
+            for (int i = 0; i < xs.length; i++)
+                xs[i] = 2.4 * i / xs.length;
+            g.evaluate(xs, out);
+            for (int i = 0; i < xs.length; i++) {
+                double x = xs[i];
+                double value = f.evaluate(x);
+                double tolerance = 1e-13 * Math.max(1, Math.abs(value)) * (degree + 1);
+                assertEquals(value, g.evaluate(x), tolerance, "degree " + degree + ", x = " + x);
+                assertEquals(value, out[i], tolerance, "degree " + degree + ", x = " + x);
+                g.evaluateWithDerivative(x, fused);
+                assertEquals(value, fused[0], tolerance, "degree " + degree + ", x = " + x);
+                double slope = f.derivative(1).evaluate(x);
+                assertEquals(slope, fused[1], 1e-13 * Math.max(1, Math.abs(slope)) * (degree + 1),
+                             "degree " + degree + ", x = " + x);
+                g.evaluateDerivatives(x, taylor);
+                for (int j = 0; j < taylor.length; j++) {
+                    double expected = f.derivative(j).evaluate(x);
+                    assertEquals(expected, taylor[j], 1e-12 * Math.max(1, Math.abs(expected)) * (degree + 1),
+                                 "degree " + degree + ", order " + j + ", x = " + x);
+                }
+            }
+        }
+    }
+
+    @Test
+    void polynomialAtInfinity() {
+        CompiledFunction g = new Function(new Power(1, 14)).compile();
+        assertEquals(Double.POSITIVE_INFINITY, g.evaluate(Double.NEGATIVE_INFINITY));
+        assertTrue(Double.isNaN(g.evaluate(Double.NaN)));
+        CompiledFunction h = new Function(new Power(2, 3)).compile();
+        assertEquals(Double.NEGATIVE_INFINITY, h.evaluate(Double.NEGATIVE_INFINITY));
+    }
+
+    @Test
+    void frozenFunctionsEvaluateThroughTheirCompiledForm() {
+        Function f = polynomialOfDegree(15);
+        Function frozen = f.freeze();
+        double[] fused = new double[2];
+        double[] compiled = new double[2];
+        for (double x = 0.05; x < 1.2; x += 0.1) {
+            assertEquals(f.compile().evaluate(x), frozen.evaluate(x), 0, "x = " + x);
+            frozen.evaluateWithDerivative(x, fused);
+            f.compile().evaluateWithDerivative(x, compiled);
+            assertArrayEquals(compiled, fused, "x = " + x);
+        }
+    }
+
+    private static final class Square extends Term {
+        public double evaluate(double x) {
+            return x * x;
+        }
+
+        public Term derivative() {
+            return new Power(2, 1);
+        }
+    }
+}
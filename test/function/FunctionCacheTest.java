@@ -0,0 +1,66 @@
+package function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+class FunctionCacheTest {
+    @Test
+    void normalizesWhitespace() {
+        assertEquals("3x^2-1", FunctionCache.normalize(" 3x^2 -  1 "));
+        assertEquals("2 3", FunctionCache.normalize("2   3"));
+    }
+
+    @Test
+    void returnsSharedFrozenFunctions() {
+        FunctionCache cache = new FunctionCache(64, 2);
+        Function f = cache.get("3x^2 - 1");
+        assertTrue(f.isFrozen());
+        assertSame(f, cache.get("3x^2-1"));
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertSame(f.derivative(2), cache.derivative("3x^2 - 1", 2));
+        assertEquals(6, cache.derivative("3x^2 - 1", 2).evaluate(5), 0);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        FunctionCache cache = new FunctionCache(16, 0);
+        Function first = cache.get("x + 0");
+        for (int i = 1; i < 200; i++)
+            cache.get("x + " + i);
+        assertTrue(cache.size() <= 16, "size " + cache.size());
+        assertNotSame(first, cache.get("x + 0"));
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new FunctionCache(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new FunctionCache(1, -1));
+        assertThrows(IllegalArgumentException.class, () -> new FunctionCache(8, 0).get("3x2"));
+    }
+
+    @Test
+    void concurrentLookupsAgree() throws Exception {
+        FunctionCache cache = new FunctionCache(256, 1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Function>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++)
+                results.add(pool.submit(() -> cache.get("sin(2x) + x^3")));
+            Function f = cache.get("sin(2x) + x^3");
+            for (Future<Function> result : results)
+                assertSame(f, result.get());
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(65, cache.getHits() + cache.getMisses());
+    }
+}
@@ -0,0 +1,74 @@
+package function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import function.terms.*;
+import java.nio.charset.StandardCharsets;
+import java.util.function.DoubleUnaryOperator;
+import org.junit.jupiter.api.Test;
+
+class FunctionGeneratorTest {
+    @Test
+    void generatedClassMatchesFunction() {
+        Function f = CompiledFunctionTest.mixed();
+        DoubleUnaryOperator op = FunctionGenerator.generate(f);
+        assertTrue(op.getClass().isHidden());
+        assertTrue(op.getClass().getName().startsWith("function.GeneratedFunction"), op.getClass().getName());
+        for (double x = 0.1; x < 4; x += 0.37) {
+            double expected = f.evaluate(x);
+            assertEquals(expected, op.applyAsDouble(x), 1e-12 * Math.max(1, Math.abs(expected)), "x = " + x);
+        }
+    }
+
+    @Test
+    void generatesDerivatives() {
+        Function f = CompiledFunctionTest.mixed();
+        DoubleUnaryOperator d = FunctionGenerator.generate(f, 2);
+        assertTrue(d.getClass().isHidden());
+        for (double x = 0.1; x < 4; x += 0.37) {
+            double expected = f.derivative(2).evaluate(x);
+            assertEquals(expected, d.applyAsDouble(x), 1e-12 * Math.max(1, Math.abs(expected)), "x = " + x);
+        }
+    }
+
+    @Test
+    void integerPowersNeedNoCallToPow() throws Exception {
+        Function f = FunctionParser.parse("2x^7 - 3x^2 + x - 5");
+        String classFile = new String(FunctionGenerator.classBytes(f), StandardCharsets.ISO_8859_1);
+        assertFalse(classFile.contains("pow"));
+        DoubleUnaryOperator op = FunctionGenerator.generate(f);
+        assertTrue(op.getClass().isHidden());
+        for (double x = -3; x <= 3; x += 0.25)
+            assertEquals(f.evaluate(x), op.applyAsDouble(x), 1e-12 * Math.max(1, Math.abs(f.evaluate(x))), "x = " + x);
+        assertEquals(Double.NEGATIVE_INFINITY, op.applyAsDouble(Double.NEGATIVE_INFINITY));
+        f.addTerm(new Power(1, 0.5));
+        assertTrue(new String(FunctionGenerator.classBytes(f), StandardCharsets.ISO_8859_1).contains("pow"));
+    }
+
+    @Test
+    void emptyFunctionIsZero() {
+        assertEquals(0, FunctionGenerator.generate(new Function()).applyAsDouble(3));
+    }
+
+    @Test
+    void fallsBackToASnapshotForOtherTerms() {
+        Function f = FunctionParser.parse("x^2");
+        f.addTerm(new Identity());
+        DoubleUnaryOperator op = FunctionGenerator.generate(f);
+        assertFalse(op.getClass().isHidden());
+        assertEquals(4 + 2, op.applyAsDouble(2));
+        f.addTerm(new Power(1, 0));
+        assertEquals(4 + 2, op.applyAsDouble(2));
+    }
+
+    /** x, as a term of none of the five forms */
+    private static final class Identity extends Term {
+        public double evaluate(double x) {
+            return x;
+        }
+
+        public Term derivative() {
+            return new Power(1, 0);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class FunctionParserTest {
+    @Test
+    void parsesEveryForm() {
+        Function f = FunctionParser.parse("3x^2 - 2e^(0.5x) + sin(4x) - 1.5cos(x) + 2ln(3x) + 7");
+        double x = 0.7;
+        double expected = 3 * x * x - 2 * Math.exp(0.5 * x) + Math.sin(4 * x) - 1.5 * Math.cos(x)
+                          + 2 * Math.log(3 * x) + 7;
+        assertEquals(expected, f.evaluate(x), 1e-14);
+        assertFalse(f.isFrozen());
+    }
+
+    @Test
+    void acceptsAlternativeSpellings() {
+        double x = 1.3;
+        assertEquals(2.5 * Math.pow(x, -1.5), FunctionParser.parse("2.5*x^(-1.5)").evaluate(x), 1e-15);
+        assertEquals(Math.exp(x), FunctionParser.parse("e^x").evaluate(x), 1e-15);
+        assertEquals(-x, FunctionParser.parse("-x").evaluate(x));
+        assertEquals(1.5e-3 * x, FunctionParser.parse("1.5e-3 * x").evaluate(x), 1e-18);
+    }
+
+    @Test
+    void mergesLikeTerms() {
+        Function f = FunctionParser.parse("x^2 + 2x^2 - x + 1x");
+        assertEquals(1, f.getSize());
+        assertArrayEquals(new double[] {0, 0, 3}, f.getPolynomialCoefficients());
+    }
+
+    @Test
+    void toStringParsesBack() {
+        Function f = FunctionParser.parse("3x^2 - 2e^(0.5x) + sin(4x) - ln(2x) + cos(-x)");
+        Function g = FunctionParser.parse(f.toString());
+        assertEquals(f.toString(), g.toString());
+        for (double x = 0.1; x < 3; x += 0.3)
+            assertEquals(f.evaluate(x), g.evaluate(x));
+    }
+
+    @Test
+    void requiresSignBetweenTerms() {
+        assertThrows(IllegalArgumentException.class, () -> FunctionParser.parse("3x2"));
+        assertThrows(IllegalArgumentException.class, () -> FunctionParser.parse("2 3"));
+        assertThrows(IllegalArgumentException.class, () -> FunctionParser.parse("x sin(x)"));
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+        for (String s : new String[] {"", "   ", "x^", "sin(x", "3 +", "tan(x)", "e^(x", "x^(2", "+-"})
+            assertThrows(IllegalArgumentException.class, () -> FunctionParser.parse(s), s);
+    }
+}
@@ -0,0 +1,204 @@
+package function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import function.terms.*;
+import org.junit.jupiter.api.Test;
+
+class FunctionTest {
+    @Test
+    void derivativesOfEachOrder() {
+        Function f = new Function(new Power(1, 3));
+        f.addTerm(new Sin(1, 2));
+        assertSame(f, f.derivative(0));
+        assertEquals(3 * 0.25 + 2 * Math.cos(1), f.derivative(1).evaluate(0.5), 1e-15);
+        assertEquals(6 * 0.5 - 4 * Math.sin(1), f.derivative(2).evaluate(0.5), 1e-15);
+        assertEquals(6 - 8 * Math.cos(1), f.derivative(3).evaluate(0.5), 1e-14);
+    }
+
+    @Test
+    void derivativeOfMutableFunctionIsMutable() {
+        Function f = FunctionParser.parse("x^3 + sin(2x)");
+        Function d = f.derivative(1);
+        assertFalse(d.isFrozen());
+        d.addTerm(new Power(1, 0));
+        assertEquals(2 + 1, d.evaluate(0), 1e-15);
+        // f is unchanged, and a fresh derivative does not see the added term
+        assertEquals(2, f.derivative(1).evaluate(0), 1e-15);
+        assertEquals(6 * 0.5 - 4 * Math.sin(1), f.derivative(2).evaluate(0.5), 1e-15);
+    }
+
+    @Test
+    void derivativesFollowChangesToTheTerms() {
+        Function f = new Function(new Power(1, 3));
+        assertEquals(12, f.derivative(2).evaluate(2), 1e-13);
+        f.getTerm(0).setA(10);
+        assertEquals(120, f.derivative(2).evaluate(2), 1e-13);
+        assertEquals(120, f.derivative(1).evaluate(2), 1e-13);
+        assertNotSame(f.derivative(1), f.derivative(1));
+    }
+
+    @Test
+    void derivativesFollowChangesToTheFunction() {
+        Function f = new Function(new Power(1, 4));
+        assertEquals(12 * 4, f.derivative(2).evaluate(2), 1e-13);
+        f.addTerm(new Power(1, 2));
+        assertEquals(12 * 4 + 2, f.derivative(2).evaluate(2), 1e-13);
+        f.removeTerm(0);
+        assertEquals(2, f.derivative(2).evaluate(2), 1e-13);
+        f.clear();
+        assertEquals(0, f.derivative(1).getSize());
+    }
+
+    @Test
+    void derivativesOfFrozenFunctionAreCached() {
+        Function f = FunctionParser.parse("x^4").freeze();
+        Function d2 = f.derivative(2);
+        assertTrue(d2.isFrozen());
+        assertSame(d2, f.derivative(2));
+        assertEquals(12 * 4, d2.evaluate(2), 1e-13);
+        assertThrows(UnsupportedOperationException.class, () -> d2.addTerm(new Power(1, 1)));
+    }
+
+    @Test
+    void mergesLikeTermsAndDropsZeros() {
+        Function f = new Function(new Power(2, 3));
+        f.addTerm(new Sin(1, 2));
+        f.addTerm(new Power(-0.5, 3));
+        f.addTerm(new Sin(-1, 2));
+        f.addTerm(new Power(0, 5));
+        f.addTerm(new Sin(4, 0));
+        assertEquals(1, f.getSize());
+        assertEquals(Power.class, f.getTerm(0).getClass());
+        assertEquals(1.5, f.getTerm(0).getA());
+        assertEquals(3, f.getTerm(0).getB());
+    }
+
+    @Test
+    void constantFormsBecomePowers() {
+        Function f = new Function(new Exp(2, 0));
+        f.addTerm(new Cos(3, 0));
+        f.addTerm(new Power(-1, 0));
+        assertEquals(1, f.getSize());
+        assertEquals(Power.class, f.getTerm(0).getClass());
+        assertEquals(4, f.evaluate(7));
+    }
+
+    @Test
+    void repeatedDerivativesStayCanonical() {
+        Function f = new Function(new Power(1, 3));
+        f.addTerm(new Power(2, 1));
+        assertEquals(0, f.derivative(4).getSize());
+        assertEquals(1, f.derivative(2).getSize());
+        Function g = new Function(new Sin(1, 1));
+        assertEquals(1, g.derivative(8).getSize());
+        assertEquals(Math.sin(0.3), g.derivative(8).evaluate(0.3), 1e-15);
+    }
+
+    @Test
+    void mergingAndAddingLeaveOtherTermsUnchanged() {
+        Power term = new Power(2, 2);
+        Function f = new Function(new Power(1, 2));
+        f.addTerm(term);
+        assertEquals(2, term.getA());
+        assertEquals(3, f.getTerm(0).getA());
+        Function g = new Function(new Exp(1, 1));
+        g.add(f, -2);
+        assertEquals(3, f.getTerm(0).getA());
+        assertEquals(-6, g.evaluate(1) - Math.E, 1e-15);
+    }
+
+    @Test
+    void frozenFunctionsRejectChanges() {
+        Power term = new Power(2, 2);
+        Function f = new Function(term);
+        f.addTerm(new Cos(1, 3));
+        Function frozen = f.freeze();
+        assertTrue(frozen.isFrozen());
+        assertFalse(f.isFrozen());
+        assertSame(frozen, frozen.freeze());
+        assertThrows(UnsupportedOperationException.class, () -> frozen.addTerm(new Power(1, 1)));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.removeTerm(0));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.add(f, 1));
+        assertThrows(UnsupportedOperationException.class, frozen::clear);
+        assertThrows(UnsupportedOperationException.class, () -> frozen.getTerm(0).setA(5));
+        // f and its terms stay mutable
+        term.setA(3);
+        f.addTerm(new Power(1, 1));
+        assertEquals(8 + Math.cos(6), frozen.evaluate(2), 1e-15);
+        assertEquals(12 + Math.cos(6) + 2, f.evaluate(2), 1e-15);
+    }
+
+    @Test
+    void plusLeavesBothOperandsUnchanged() {
+        Function f = new Function(new Power(1, 2));
+        Function g = new Function(new Power(3, 2));
+        g.addTerm(new Exp(1, 1));
+        Function sum = f.plus(g, -1);
+        assertTrue(sum.isFrozen());
+        assertEquals(2, sum.getSize());
+        assertEquals(-2 * 4 - Math.E * Math.E, sum.evaluate(2), 1e-14);
+        assertEquals(4, f.evaluate(2));
+        assertEquals(12 + Math.E * Math.E, g.evaluate(2), 1e-14);
+    }
+
+    @Test
+    void builderBuildsFrozenFunctionOnce() {
+        Function g = new Function(new Sin(1, 1));
+        Function.Builder builder = Function.builder()
+                .addTerm(new Power(1, 1))
+                .addTerm(new Power(2, 1))
+                .add(g, 2);
+        Function f = builder.build();
+        assertTrue(f.isFrozen());
+        assertEquals(2, f.getSize());
+        assertEquals(3 + 2 * Math.sin(1), f.evaluate(1), 1e-15);
+        assertThrows(IllegalStateException.class, builder::build);
+        assertThrows(IllegalStateException.class, () -> builder.addTerm(new Power(1, 0)));
+    }
+
+    @Test
+    void addDoesNotScaleSharedTerms() {
+        Term t = new Identity();
+        Function g = new Function(t);
+        Function f = FunctionParser.parse("sin(x)");
+        f.add(g, 4);
+        f.add(g, 2);
+        assertEquals(1, t.getA());
+        assertFalse(t.isFrozen());
+        assertEquals(Math.sin(2) + 4 * 2 + 2 * 2, f.evaluate(2), 1e-14);
+        Function sum = f.plus(g, -6);
+        assertEquals(Math.sin(2) + 4 * 2 + 2 * 2 - 6 * 2, sum.evaluate(2), 1e-14);
+        assertEquals(1, t.getA());
+    }
+
+    @Test
+    void freezeCopiesTermsOfOtherSubclasses() {
+        Term t = new Identity();
+        Function f = new Function(t);
+        Function frozen = f.freeze();
+        Function built = Function.builder().addTerm(t).build();
+        assertFalse(t.isFrozen());
+        t.setA(5);
+        assertEquals(3, frozen.evaluate(3));
+        assertEquals(3, built.evaluate(3));
+        assertEquals(15, f.evaluate(3));
+        assertEquals(Identity.class, frozen.getTerm(0).getClass());
+        assertTrue(frozen.getTerm(0).isFrozen());
+    }
+
+    /** a*x, as a term of none of the five forms */
+    private static final class Identity extends Term {
+        Identity() {
+            setA(1);
+        }
+
+        public double evaluate(double x) {
+            return getA() * x;
+        }
+
+        public Term derivative() {
+            return new Power(getA(), 0);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import function.terms.*;
+import org.junit.jupiter.api.Test;
+
+class IntervalTest {
+    /** Samples of each interval, including its bounds */
+    private static double[] samples(Interval x) {
+        double[] s = new double[65];
+        for (int i = 0; i <= 64; i++)
+            s[i] = x.getLower() + (x.getUpper() - x.getLower()) * i / 64;
+        s[64] = x.getUpper();
+        return s;
+    }
+
+    @Test
+    void rejectsInvalidBounds() {
+        assertThrows(IllegalArgumentException.class, () -> new Interval(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new Interval(Double.NaN, 0));
+        assertEquals("[0.0, 0.0]", new Interval(-0.0, 0.0).toString());
+    }
+
+    @Test
+    void roundsOutward() {
+        Interval sum = Interval.point(0.1).add(Interval.point(0.2));
+        assertTrue(sum.getLower() < 0.1 + 0.2 && 0.1 + 0.2 < sum.getUpper());
+        Interval product = new Interval(-1, 2).scale(-3);
+        assertTrue(product.contains(-6) && product.contains(3));
+        assertTrue(product.getLower() < -6 && product.getUpper() > 3);
+    }
+
+    @Test
+    void transcendentalEnclosuresAreSound() {
+        Interval[] intervals = {new Interval(-3, -1), new Interval(-0.5, 0.5), new Interval(0.25, 7),
+                                new Interval(1, 1 + 1e-9), new Interval(-20, 20)};
+        for (Interval x : intervals) {
+            Interval exp = x.exp();
+            Interval sin = x.sin();
+            Interval cos = x.cos();
+            Interval square = x.pow(2);
+            Interval cube = x.pow(3);
+            for (double t : samples(x)) {
+                assertTrue(exp.contains(Math.exp(t)), "exp " + x);
+                assertTrue(sin.contains(Math.sin(t)), "sin " + x);
+                assertTrue(cos.contains(Math.cos(t)), "cos " + x);
+                assertTrue(square.contains(Math.pow(t, 2)), "square " + x);
+                assertTrue(cube.contains(Math.pow(t, 3)), "cube " + x);
+                if (x.getLower() > 0) {
+                    assertTrue(x.log().contains(Math.log(t)), "log " + x);
+                    assertTrue(x.pow(-1.5).contains(Math.pow(t, -1.5)), "pow " + x);
+                }
+            }
+        }
+    }
+
+    @Test
+    void periodicEnclosuresReachExtrema() {
+        Interval sin = new Interval(1, 2).sin();
+        assertEquals(1, sin.getUpper());
+        assertTrue(sin.getLower() <= Math.sin(1));
+        Interval cos = new Interval(3, 3.5).cos();
+        assertEquals(-1, cos.getLower());
+        assertEquals(new Interval(-1, 1).toString(), new Interval(0, 7).sin().toString());
+    }
+
+    @Test
+    void evenPowerOfIntervalAroundZero() {
+        Interval square = new Interval(-2, 1).pow(2);
+        assertEquals(0, square.getLower());
+        assertTrue(square.contains(4));
+    }
+
+    @Test
+    void undefinedOperationsAreEntire() {
+        assertTrue(new Interval(0, 1).log().isEntire());
+        assertTrue(new Interval(-1, 1).pow(-1).isEntire());
+        assertTrue(new Interval(-1, 1).pow(0.5).isEntire());
+        assertTrue(Interval.ENTIRE.containsZero());
+        assertFalse(new Interval(1, 2).exp().containsZero());
+        assertEquals(1, new Interval(-5, 5).pow(0).getLower());
+    }
+
+    @Test
+    void functionEnclosuresContainSamples() {
+        Function f = new Function(new Power(2, 3));
+        f.addTerm(new Exp(-1, 0.5));
+        f.addTerm(new Sin(3, 2));
+        f.addTerm(new Cos(1, -1));
+        f.addTerm(new Log(0.5, 2));
+        CompiledFunction g = f.compile();
+        Interval[] intervals = {new Interval(0.1, 0.2), new Interval(0.5, 3), new Interval(2, 2 + 1e-6)};
+        for (Interval x : intervals) {
+            Interval y = f.evaluate(x);
+            Interval compiled = g.evaluate(x);
+            for (double t : samples(x)) {
+                assertTrue(y.contains(f.evaluate(t)), x + " at " + t);
+                assertTrue(compiled.contains(f.evaluate(t)), x + " at " + t);
+            }
+        }
+        assertTrue(f.evaluate(new Interval(-1, 1)).isEntire());
+    }
+}
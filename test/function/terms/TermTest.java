@@ -0,0 +1,73 @@
+package function.terms;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class TermTest {
+    private static Term[] terms() {
+        return new Term[] {new Power(3, 2), new Power(-2, 0.5), new Power(1.5, -3), new Power(4, 0),
+                           new Exp(2, -0.7), new Log(3, 2), new Sin(-1, 3), new Cos(0.5, -2)};
+    }
+
+    @Test
+    void derivativesMatchDifferenceQuotients() {
+        double h = 1e-6;
+        for (Term t : terms()) {
+            for (double x = 0.3; x < 3; x += 0.4) {
+                double quotient = (t.evaluate(x + h) - t.evaluate(x - h)) / (2 * h);
+                assertEquals(quotient, t.derivative().evaluate(x), 1e-6 * Math.max(1, Math.abs(quotient)), t + " at " + x);
+            }
+        }
+    }
+
+    @Test
+    void logDerivativeIsIndependentOfB() {
+        // d/dx a*ln(bx) = a/x
+        assertEquals(3 / 0.5, new Log(3, 2).derivative().evaluate(0.5), 1e-15);
+        assertEquals(3 / 0.5, new Log(3, 7).derivative().evaluate(0.5), 1e-15);
+    }
+
+    @Test
+    void evaluateWithDerivativeAccumulatesValueAndSlope() {
+        for (Term t : terms()) {
+            for (double x = 0.3; x < 3; x += 0.4) {
+                double[] result = {1, -1};
+                t.evaluateWithDerivative(x, result);
+                double value = t.evaluate(x);
+                double slope = t.derivative().evaluate(x);
+                assertEquals(1 + value, result[0], 1e-14 * Math.max(1, Math.abs(value)), t + " at " + x);
+                assertEquals(-1 + slope, result[1], 1e-14 * Math.max(1, Math.abs(slope)), t + " at " + x);
+            }
+        }
+    }
+
+    @Test
+    void evaluateDerivativesMatchesRepeatedDerivative() {
+        for (Term t : terms()) {
+            for (double x = 0.3; x < 3; x += 0.4) {
+                double[] result = new double[6];
+                t.evaluateDerivatives(x, result);
+                Term d = t;
+                for (int j = 0; j < result.length; j++) {
+                    double expected = d.evaluate(x);
+                    assertEquals(expected, result[j], 1e-12 * Math.max(1, Math.abs(expected)), t + ", order " + j + " at " + x);
+                    d = d.derivative();
+                }
+            }
+        }
+    }
+
+    @Test
+    void powerAtZero() {
+        double[] result = new double[2];
+        new Power(2, 1).evaluateWithDerivative(0, result);
+        assertArrayEquals(new double[] {0, 2}, result);
+        result = new double[2];
+        new Power(5, 0).evaluateWithDerivative(0, result);
+        assertArrayEquals(new double[] {5, 0}, result);
+        result = new double[5];
+        new Power(2, 3).evaluateDerivatives(0, result);
+        assertArrayEquals(new double[] {0, 0, 0, 12, 0}, result);
+    }
+}
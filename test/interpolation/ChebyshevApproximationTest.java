@@ -0,0 +1,53 @@
+package interpolation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import function.Function;
+import function.terms.*;
+import org.junit.jupiter.api.Test;
+
+class ChebyshevApproximationTest {
+    @Test
+    void approximatesSmoothFunctionToTolerance() {
+        Function f = new Function(new Exp(1, 1));
+        f.addTerm(new Sin(1, 3));
+        ChebyshevApproximation c = new ChebyshevApproximation(f, -1, 2);
+        assertTrue(c.isConverged());
+        assertTrue(c.getDegree() < 64, "degree " + c.getDegree());
+        assertEquals(-1, c.getA());
+        assertEquals(2, c.getB());
+        for (double x = -1; x <= 2; x += 0.01)
+            assertEquals(f.evaluate(x), c.evaluate(x), 1e-13, "x = " + x);
+    }
+
+    @Test
+    void polynomialHasItsOwnDegree() {
+        Function f = new Function(new Power(4, 3));
+        f.addTerm(new Power(-3, 1));
+        ChebyshevApproximation c = new ChebyshevApproximation(f, -1, 1);
+        // 4x^3 - 3x is T_3
+        assertEquals(3, c.getDegree());
+        assertEquals(1, c.coefficients[3], 1e-14);
+        assertEquals(0, c.coefficients[1], 1e-14);
+    }
+
+    @Test
+    void coarserToleranceGivesLowerDegree() {
+        Function f = new Function(new Cos(1, 10));
+        ChebyshevApproximation fine = new ChebyshevApproximation(f, 0, 2);
+        ChebyshevApproximation coarse = new ChebyshevApproximation(f, 0, 2, 1e-6);
+        assertTrue(coarse.getDegree() < fine.getDegree());
+        for (double x = 0; x <= 2; x += 0.05)
+            assertEquals(f.evaluate(x), coarse.evaluate(x), 1e-5, "x = " + x);
+    }
+
+    @Test
+    void evaluatesGivenCoefficients() {
+        // T_0 + 2T_2 on [0, 4], with t = (x - 2) / 2
+        ChebyshevApproximation c = new ChebyshevApproximation(new double[] {1, 0, 2}, 0, 4);
+        for (double x = 0; x <= 4; x += 0.5) {
+            double t = (x - 2) / 2;
+            assertEquals(1 + 2 * (2 * t * t - 1), c.evaluate(x), 1e-14, "x = " + x);
+        }
+    }
+}
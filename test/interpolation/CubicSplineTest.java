@@ -0,0 +1,133 @@
+package interpolation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CubicSplineTest {
+    private static double[][] sample(double[] xs, java.util.function.DoubleUnaryOperator f) {
+        double[][] nodes = new double[2][xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            nodes[0][i] = xs[i];
+            nodes[1][i] = f.applyAsDouble(xs[i]);
+        }
+        return nodes;
+    }
+
+    private static double[] uniform(double a, double b, int n) {
+        double[] xs = new double[n];
+        for (int i = 0; i < n; i++)
+            xs[i] = a + (b - a) * i / (n - 1);
+        return xs;
+    }
+
+    @Test
+    void clampedSplineReproducesCubics() {
+        double[] xs = {0, 0.3, 1.1, 1.2, 2.5, 4};
+        CubicSpline s = CubicSpline.clamped(sample(xs, x -> x * x * x - x), -1, 47);
+        for (double x = 0; x <= 4; x += 0.05)
+            assertEquals(x * x * x - x, s.evaluate(x), 1e-12, "x = " + x);
+    }
+
+    @Test
+    void naturalSplineReproducesLinesAndHasZeroEndCurvature() {
+        CubicSpline line = CubicSpline.natural(sample(uniform(-2, 3, 7), x -> 3 * x - 1));
+        for (double x = -3; x <= 4; x += 0.3)
+            assertEquals(3 * x - 1, line.evaluate(x), 1e-13, "x = " + x);
+        CubicSpline s = CubicSpline.natural(sample(uniform(0, 3, 10), Math::exp));
+        double h = 1e-4;
+        double curvature = (s.evaluate(0) - 2 * s.evaluate(h) + s.evaluate(2 * h)) / (h * h);
+        assertEquals(0, curvature, 1e-2);
+    }
+
+    @Test
+    void convergesWithOrderFour() {
+        double previous = Double.NaN;
+        for (int n = 11; n <= 161; n = 2 * n - 1) {
+            CubicSpline s = CubicSpline.clamped(sample(uniform(0, 3, n), Math::sin), 1, Math.cos(3));
+            double error = 0;
+            for (double x = 0; x <= 3; x += 1e-3)
+                error = Math.max(error, Math.abs(s.evaluate(x) - Math.sin(x)));
+            if (!Double.isNaN(previous))
+                assertTrue(previous / error > 12, "n = " + n + ": " + previous + " -> " + error);
+            previous = error;
+        }
+    }
+
+    @Test
+    void monotoneSplineDoesNotOvershoot() {
+        CubicSpline s = CubicSpline.monotone(new double[][] {{0, 1, 2, 3, 4, 5}, {0, 0, 0, 1, 1, 1}});
+        double last = s.evaluate(0);
+        for (double x = 0; x <= 5; x += 0.01) {
+            double y = s.evaluate(x);
+            assertTrue(y >= 0 && y <= 1, "x = " + x);
+            assertTrue(y >= last - 1e-15, "x = " + x);
+            last = y;
+        }
+        assertEquals(0, s.getSlopes()[1]);
+    }
+
+    @Test
+    void sortedAndBatchEvaluationMatchPointwise() {
+        double[] xs = {0, 0.1, 0.5, 0.7, 1.6, 2};
+        CubicSpline s = CubicSpline.natural(sample(xs, Math::cos));
+        double[] points = uniform(-0.5, 2.5, 301);
+        double[] sorted = new double[points.length];
+        double[] batch = new double[points.length];
+        s.evaluateSorted(points, sorted);
+        s.evaluate(points, batch);
+        for (int i = 0; i < points.length; i++) {
+            assertEquals(s.evaluate(points[i]), sorted[i], 0, "x = " + points[i]);
+            assertEquals(sorted[i], batch[i], 0, "x = " + points[i]);
+        }
+        assertEquals(0, s.findInterval(-1));
+        assertEquals(2, s.findInterval(0.5));
+        assertEquals(4, s.findInterval(3));
+    }
+
+    @Test
+    void rejectsInvalidNodes() {
+        assertThrows(IllegalArgumentException.class, () -> CubicSpline.natural(new double[][] {{0}, {1}}));
+        assertThrows(IllegalArgumentException.class, () -> CubicSpline.natural(new double[][] {{0, 2, 1}, {0, 0, 0}}));
+        assertThrows(IllegalArgumentException.class, () -> CubicSpline.natural(new double[][] {{0, 1}, {0}}));
+        assertThrows(IllegalArgumentException.class,
+                     () -> new CubicSpline(new double[][] {{0, 1}, {0, 1}}, new double[3]));
+    }
+
+    @Test
+    void splineOverMappedNodes(@TempDir Path dir) throws IOException {
+        double[][] nodes = sample(uniform(0, 1, 1000), x -> x * x);
+        Path file = dir.resolve("nodes.bin");
+        MappedNodeSource.write(file, nodes);
+        MappedNodeSource source = new MappedNodeSource(file);
+        assertEquals(1000, source.size());
+        assertEquals(nodes[0][517], source.x(517));
+        assertEquals(nodes[1][517], source.y(517));
+        CubicSpline mapped = CubicSpline.natural(source);
+        CubicSpline array = CubicSpline.natural(nodes);
+        for (double x = 0; x <= 1; x += 0.01)
+            assertEquals(array.evaluate(x), mapped.evaluate(x), 0, "x = " + x);
+        assertEquals(1000, mapped.getSize());
+    }
+
+    @Test
+    void polynomialsCopyNodesFromASource(@TempDir Path dir) throws IOException {
+        double[][] nodes = sample(new double[] {-1, 0, 0.5, 2}, x -> x * x * x);
+        Path file = dir.resolve("nodes.bin");
+        MappedNodeSource.write(file, new ArrayNodeSource(nodes));
+        NodeSource source = new MappedNodeSource(file);
+        NewtonPolynomial newton = new NewtonPolynomial(source);
+        LagrangePolynomial lagrange = new LagrangePolynomial(source);
+        newton.computeCoefficients();
+        lagrange.computeCoefficients();
+        assertArrayEquals(nodes[0], newton.nodes[0]);
+        assertArrayEquals(nodes[1], lagrange.nodes[1]);
+        for (double x = -1; x <= 2; x += 0.25) {
+            assertEquals(x * x * x, newton.evaluate(x), 1e-13, "x = " + x);
+            assertEquals(x * x * x, lagrange.evaluate(x), 1e-13, "x = " + x);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package interpolation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class InterpolatingPolynomialTest {
+    private static double[] grid(int n) {
+        double[] xs = new double[n];
+        for (int i = 0; i < n; i++)
+            xs[i] = -1 + 3.0 * i / n;
+        return xs;
+    }
+
+    private static void assertBatchMatchesPointwise(InterpolatingPolynomial p) {
+        double[] xs = grid(2 * InterpolatingPolynomial.PARALLEL_THRESHOLD + 11);
+        double[] out = new double[xs.length];
+        p.evaluate(xs, out);
+        for (int i = 0; i < xs.length; i += 101)
+            assertEquals(p.evaluate(xs[i]), out[i], 0, "x = " + xs[i]);
+        double[] part = new double[8];
+        p.evaluate(xs, 40, part, 1, 6);
+        for (int i = 0; i < 6; i++)
+            assertEquals(out[40 + i], part[1 + i], 0);
+        assertEquals(0, part[0]);
+        assertEquals(0, part[7]);
+    }
+
+    /** Sets the nodes of p to those of x^3 at x = -1, 0, 1, 2 and computes its coefficients */
+    private static <P extends InterpolatingPolynomial> P cubic(P p) {
+        p.uniformNodes(-1, 1);
+        for (int i = 0; i < 4; i++)
+            p.nodes[1][i] = Math.pow(p.nodes[0][i], 3);
+        p.computeCoefficients();
+        return p;
+    }
+
+    @Test
+    void lagrangeBatchEvaluation() {
+        LagrangePolynomial p = cubic(new LagrangePolynomial(4));
+        assertEquals(1.5 * 1.5 * 1.5, p.evaluate(1.5), 1e-14);
+        assertBatchMatchesPointwise(p);
+        p.setBarycentric(true);
+        assertBatchMatchesPointwise(p);
+    }
+
+    @Test
+    void newtonBatchEvaluation() {
+        NewtonPolynomial p = cubic(new NewtonPolynomial(4));
+        assertEquals(1.5 * 1.5 * 1.5, p.evaluate(1.5), 1e-14);
+        assertBatchMatchesPointwise(p);
+    }
+}
@@ -0,0 +1,111 @@
+package interpolation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class LagrangePolynomialTest {
+    private static double cubic(double x) {
+        return 2 * x * x * x - x + 3;
+    }
+
+    @Test
+    void reproducesPolynomialInBothForms() {
+        LagrangePolynomial p = new LagrangePolynomial(5);
+        p.uniformNodes(-1, 0.75);
+        for (int i = 0; i < 5; i++)
+            p.nodes[1][i] = cubic(p.nodes[0][i]);
+        p.computeCoefficients();
+        for (double x = -1.5; x <= 3; x += 0.1) {
+            assertEquals(cubic(x), p.evaluate(x), 1e-12, "x = " + x);
+            assertEquals(cubic(x), p.evaluateBarycentric(x), 1e-12, "x = " + x);
+        }
+        p.setBarycentric(true);
+        assertTrue(p.isBarycentric());
+        assertEquals(cubic(0.3), p.evaluate(0.3), 1e-13);
+    }
+
+    @Test
+    void barycentricIsExactAtNodes() {
+        LagrangePolynomial p = new LagrangePolynomial(new double[][] {{0, 1, 3}, {4, -2, 7}});
+        p.computeCoefficients();
+        assertEquals(4, p.evaluateBarycentric(0));
+        assertEquals(-2, p.evaluateBarycentric(1));
+        assertEquals(7, p.evaluateBarycentric(3));
+    }
+
+    @Test
+    void computesWeightsOnDemand() {
+        LagrangePolynomial p = new LagrangePolynomial(new double[][] {{0, 1, 3}, {4, -2, 7}});
+        assertEquals(-2, p.evaluateBarycentric(1));
+        assertEquals(7, p.evaluateBarycentric(3));
+        assertNotNull(p.weights);
+    }
+
+    @Test
+    void weightsStayFiniteForManyNodesAtAnyScale() {
+        int n = 120;
+        for (double scale : new double[] {1e-6, 1, 1e6, 1e12}) {
+            LagrangePolynomial p = new LagrangePolynomial(n, true);
+            p.chebyshevNodes();
+            for (int i = 0; i < n; i++) {
+                p.nodes[0][i] *= scale;
+                p.nodes[1][i] = Math.cos(p.nodes[0][i] / scale);
+            }
+            p.computeCoefficients();
+            for (double w : p.weights)
+                assertTrue(Double.isFinite(w) && w != 0, "scale " + scale);
+            for (double t = -0.95; t < 1; t += 0.1)
+                assertEquals(Math.cos(t), p.evaluate(t * scale), 1e-14, "scale " + scale + ", t = " + t);
+        }
+    }
+
+    @Test
+    void addNodeUpdatesWeightsLikeRebuild() {
+        LagrangePolynomial grown = new LagrangePolynomial(4, true);
+        grown.uniformNodes(0, 0.5);
+        for (int i = 0; i < 4; i++)
+            grown.nodes[1][i] = Math.exp(grown.nodes[0][i]);
+        grown.computeCoefficients();
+        for (int i = 4; i < 9; i++)
+            grown.addNode(i * 0.5, Math.exp(i * 0.5));
+        assertEquals(9, grown.weights.length);
+
+        LagrangePolynomial built = new LagrangePolynomial(new double[][] {grown.nodes[0].clone(), grown.nodes[1].clone()});
+        built.computeCoefficients();
+        // weights are only defined up to a common factor
+        for (int i = 0; i < 9; i++) {
+            double expected = built.weights[i] / built.weights[0];
+            assertEquals(expected, grown.weights[i] / grown.weights[0], 1e-13 * Math.abs(expected), "weight " + i);
+            assertEquals(built.coefficients[i], grown.coefficients[i], 1e-13 * Math.abs(built.coefficients[i]));
+        }
+        for (double x = 0.1; x < 4; x += 0.25)
+            assertEquals(built.evaluateBarycentric(x), grown.evaluate(x), 1e-12, "x = " + x);
+    }
+
+    @Test
+    void addNodeBeforeCoefficientsAreComputed() {
+        LagrangePolynomial p = new LagrangePolynomial(new double[][] {{0, 1}, {1, 2}});
+        p.addNode(2, 5);
+        p.computeCoefficients();
+        assertEquals(10, p.evaluateBarycentric(3), 1e-14);
+        assertEquals(10, p.evaluate(3), 1e-14);
+    }
+
+    @Test
+    void parallelBatchComputesWeightsOnce() {
+        // without computeCoefficients(), every worker of the batch used to fill in the weights while others read them
+        int n = 400;
+        LagrangePolynomial p = new LagrangePolynomial(n, true);
+        p.chebyshevNodes();
+        for (int i = 0; i < n; i++)
+            p.nodes[1][i] = Math.sin(3 * p.nodes[0][i]);
+        double[] xs = new double[1 << 17];
+        for (int i = 0; i < xs.length; i++)
+            xs[i] = -1 + 2.0 * i / xs.length;
+        double[] out = new double[xs.length];
+        p.evaluate(xs, out);
+        for (int i = 0; i < xs.length; i += 97)
+            assertEquals(Math.sin(3 * xs[i]), out[i], 1e-13, "x = " + xs[i]);
+    }
+}
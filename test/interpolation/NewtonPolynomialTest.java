@@ -0,0 +1,123 @@
+package interpolation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class NewtonPolynomialTest {
+    private static final double[] XS = {0.3, -1, 2, 0.8, 1.7, -0.4, 3.1};
+
+    private static double f(double x) {
+        return Math.sin(x) + x * x;
+    }
+
+    private static NewtonPolynomial rebuilt(int n) {
+        NewtonPolynomial p = new NewtonPolynomial(n);
+        for (int i = 0; i < n; i++) {
+            p.nodes[0][i] = XS[i];
+            p.nodes[1][i] = f(XS[i]);
+        }
+        p.computeCoefficients();
+        return p;
+    }
+
+    @Test
+    void dividedDifferencesOfACubic() {
+        NewtonPolynomial p = new NewtonPolynomial(0);
+        double[] x = {-1, 0.5, 2, 4};
+        double[] fx = new double[4];
+        for (int i = 0; i < 4; i++)
+            fx[i] = 2 * x[i] * x[i] * x[i] - x[i];
+        assertEquals(2, p.dividedDifference(x, fx), 1e-14);
+        assertEquals(fx[1], p.dividedDifference(new double[] {x[1]}, new double[] {fx[1]}));
+        assertEquals((fx[2] - fx[1]) / (x[2] - x[1]),
+                     p.dividedDifference(new double[] {x[1], x[2]}, new double[] {fx[1], fx[2]}), 1e-15);
+        assertArrayEquals(new double[] {-1, 0.5, 2, 4}, x);
+        assertEquals(2 * 4 * 4 * 4 - 4, fx[3]);
+    }
+
+    @Test
+    void coefficientsAreTheLeadingDividedDifferences() {
+        NewtonPolynomial p = rebuilt(XS.length);
+        for (int k = 0; k < XS.length; k++) {
+            double[] fx = new double[k + 1];
+            for (int i = 0; i <= k; i++)
+                fx[i] = f(XS[i]);
+            double expected = p.dividedDifference(NewtonPolynomial.partialArray(XS, 0, k + 1), fx);
+            assertEquals(expected, p.coefficients[k], 1e-12 * Math.max(1, Math.abs(expected)), "k = " + k);
+        }
+    }
+
+    @Test
+    void addNodeMatchesRebuiltCoefficients() {
+        NewtonPolynomial grown = new NewtonPolynomial(0);
+        grown.computeCoefficients();
+        for (int n = 1; n <= XS.length; n++) {
+            grown.addNode(XS[n - 1], f(XS[n - 1]));
+            NewtonPolynomial expected = rebuilt(n);
+            assertEquals(n, grown.coefficients.length);
+            for (int k = 0; k < n; k++)
+                assertEquals(expected.coefficients[k], grown.coefficients[k],
+                             1e-12 * Math.max(1, Math.abs(expected.coefficients[k])), "n = " + n + ", k = " + k);
+        }
+        NewtonPolynomial expected = rebuilt(XS.length);
+        for (double x = -1; x <= 3; x += 0.25)
+            assertEquals(expected.evaluate(x), grown.evaluate(x), 1e-12, "x = " + x);
+    }
+
+    @Test
+    void addNodeBeforeCoefficientsAreComputed() {
+        NewtonPolynomial p = new NewtonPolynomial(new double[][] {{0, 1}, {1, 2}});
+        p.addNode(2, 5);
+        p.computeCoefficients();
+        assertArrayEquals(new double[] {1, 1, 1}, p.coefficients, 1e-15);
+        assertEquals(10, p.evaluate(3), 1e-14);
+    }
+
+    @Test
+    void singleNode() {
+        NewtonPolynomial p = rebuilt(1);
+        assertArrayEquals(new double[] {f(XS[0])}, p.coefficients);
+        NewtonPolynomial grown = new NewtonPolynomial(0);
+        grown.computeCoefficients();
+        grown.addNode(XS[0], f(XS[0]));
+        assertArrayEquals(p.coefficients, grown.coefficients);
+    }
+
+    @Test
+    void nestedFormMatchesProductForm() {
+        NewtonPolynomial p = rebuilt(XS.length);
+        for (double x = -1; x <= 3; x += 0.125) {
+            double expected = 0;
+            double product = 1;
+            for (int k = 0; k < XS.length; k++) {
+                expected += p.coefficients[k] * product;
+                product *= x - XS[k];
+            }
+            assertEquals(expected, p.evaluate(x), 1e-12 * Math.max(1, Math.abs(expected)), "x = " + x);
+        }
+        for (int i = 0; i < XS.length; i++)
+            assertEquals(f(XS[i]), p.evaluate(XS[i]), 1e-13);
+    }
+
+    @Test
+    void singleNodeIsConstant() {
+        NewtonPolynomial p = rebuilt(1);
+        assertEquals(f(XS[0]), p.evaluate(-5));
+        double[] out = new double[3];
+        p.evaluate(new double[] {-1, 0, 7}, out);
+        assertArrayEquals(new double[] {f(XS[0]), f(XS[0]), f(XS[0])}, out);
+    }
+
+    @Test
+    void batchEvaluationMatchesPointwise() {
+        NewtonPolynomial p = rebuilt(XS.length);
+        double[] xs = new double[1000];
+        for (int i = 0; i < xs.length; i++)
+            xs[i] = -1 + 4.0 * i / xs.length;
+        double[] out = new double[xs.length];
+        p.evaluate(xs, out);
+        for (int i = 0; i < xs.length; i++)
+            assertEquals(p.evaluate(xs[i]), out[i], 1e-12 * Math.max(1, Math.abs(out[i])), "x = " + xs[i]);
+    }
+}
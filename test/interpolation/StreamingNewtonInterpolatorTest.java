@@ -0,0 +1,67 @@
+package interpolation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class StreamingNewtonInterpolatorTest {
+    @Test
+    void reproducesPolynomialOfWindowDegree() {
+        StreamingNewtonInterpolator s = new StreamingNewtonInterpolator(4);
+        for (int i = 0; i < 20; i++) {
+            double x = i * 0.3;
+            s.add(x, x * x * x - 2 * x);
+        }
+        assertTrue(s.isFull());
+        assertEquals(4, s.size());
+        for (double x = 4; x < 7; x += 0.25)
+            assertEquals(x * x * x - 2 * x, s.evaluate(x), 1e-10, "x = " + x);
+        assertEquals(19 * 0.3, s.getX(0), 1e-15);
+        assertEquals(16 * 0.3, s.getX(3), 1e-15);
+        assertEquals(1, s.getCoefficient(3), 1e-10);
+    }
+
+    @Test
+    void matchesNewtonPolynomialThroughLastSamples() {
+        int k = 5;
+        StreamingNewtonInterpolator s = new StreamingNewtonInterpolator(k);
+        double[][] nodes = new double[2][k];
+        for (int i = 0; i < 30; i++) {
+            double x = Math.sqrt(i + 1.0);
+            double y = Math.sin(3 * x);
+            s.add(x, y);
+            if (i >= 30 - k) {
+                nodes[0][i - 30 + k] = x;
+                nodes[1][i - 30 + k] = y;
+            }
+        }
+        NewtonPolynomial p = new NewtonPolynomial(nodes);
+        p.computeCoefficients();
+        for (double x = 5; x < 5.6; x += 0.05)
+            assertEquals(p.evaluate(x), s.evaluate(x), 1e-11, "x = " + x);
+    }
+
+    @Test
+    void partialWindowAndClear() {
+        StreamingNewtonInterpolator s = new StreamingNewtonInterpolator(3);
+        s.add(1, 5);
+        assertFalse(s.isFull());
+        assertEquals(5, s.evaluate(100));
+        s.add(2, 7);
+        assertEquals(9, s.evaluate(3), 1e-15);
+        s.clear();
+        assertEquals(0, s.size());
+        s.add(0, 1);
+        assertEquals(1, s.evaluate(2));
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        assertThrows(IllegalArgumentException.class, () -> new StreamingNewtonInterpolator(0));
+        StreamingNewtonInterpolator s = new StreamingNewtonInterpolator(3);
+        s.add(1, 0);
+        assertThrows(IllegalArgumentException.class, () -> s.add(1, 2));
+        assertThrows(IllegalArgumentException.class, () -> s.add(0.5, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> s.getX(1));
+    }
+}
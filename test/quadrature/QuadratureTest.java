@@ -0,0 +1,110 @@
+package quadrature;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import function.Function;
+import function.terms.*;
+import interpolation.NewtonPolynomial;
+import org.junit.jupiter.api.Test;
+
+class QuadratureTest {
+    /** Returns the polynomial with coefficients c[k] of x^k */
+    private static Function polynomial(double... c) {
+        Function f = new Function();
+        for (int k = 0; k < c.length; k++)
+            if (c[k] != 0)
+                f.addTerm(new Power(c[k], k));
+        return f;
+    }
+
+    @Test
+    void gaussRulesAreExactForPolynomialsOfDegree2nMinus1() {
+        for (int n = 1; n <= Quadrature.MAX_GAUSS_POINTS; n += 7) {
+            double[] x = Quadrature.gaussNodes(n);
+            double[] w = Quadrature.gaussWeights(n);
+            assertEquals(n, x.length);
+            for (int k = 0; k < 2 * n; k++) {
+                double sum = 0;
+                for (int i = 0; i < n; i++)
+                    sum += w[i] * Math.pow(x[i], k);
+                double exact = k % 2 == 0 ? 2.0 / (k + 1) : 0;
+                assertEquals(exact, sum, 1e-13, "n = " + n + ", k = " + k);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> Quadrature.gaussNodes(0));
+        assertThrows(IllegalArgumentException.class, () -> Quadrature.gaussWeights(Quadrature.MAX_GAUSS_POINTS + 1));
+    }
+
+    @Test
+    void simpsonIsExactForCubics() {
+        QuadratureResult r = Quadrature.simpson(polynomial(1, 0, -3, 4), -1, 2, 8);
+        assertEquals(16 - 1 - (8 + 1) + 3, r.getValue(), 1e-13);
+        assertEquals(0, r.getErrorEstimate(), 1e-13);
+    }
+
+    @Test
+    void simpsonToleranceAndPanelLimit() {
+        Function f = new Function(new Exp(1, 1));
+        QuadratureResult r = Quadrature.simpson(f, 0, 1, 1e-12, 1 << 16);
+        assertEquals(Math.E - 1, r.getValue(), 1e-11);
+        assertTrue(r.getErrorEstimate() <= 1e-12, r.toString());
+        QuadratureResult limited = Quadrature.simpson(f, 0, 1, 1e-15, 8);
+        assertTrue(limited.getErrorEstimate() > 1e-15, limited.toString());
+        for (int maxPanels = 1; maxPanels <= 40; maxPanels++) {
+            limited = Quadrature.simpson(f, 0, 1, 1e-15, maxPanels);
+            assertTrue(limited.getEvaluations() <= maxPanels + 1, maxPanels + ": " + limited);
+            assertTrue(limited.getEvaluations() > maxPanels / 2, maxPanels + ": " + limited);
+        }
+    }
+
+    @Test
+    void gaussLegendreConvergesAndCountsEvaluations() {
+        QuadratureResult r = Quadrature.gaussLegendre(new Function(new Sin(1, 1)), 0, Math.PI, 10, 4);
+        assertEquals(2, r.getValue(), 1e-14);
+        assertTrue(r.getErrorEstimate() < 1e-12, r.toString());
+        // each panel is evaluated at its points, and again on its two halves for the error estimate
+        assertEquals(3 * 10 * 4, r.getEvaluations());
+    }
+
+    @Test
+    void gaussKronrodReachesTolerance() {
+        Function f = new Function(new Exp(1, -2));
+        f.addTerm(new Cos(1, 5));
+        QuadratureResult r = Quadrature.gaussKronrod(f, 0, 3, 1e-13);
+        double exact = (1 - Math.exp(-6)) / 2 + Math.sin(15) / 5;
+        assertEquals(exact, r.getValue(), 1e-13);
+        assertTrue(r.getErrorEstimate() <= 1e-13, r.toString());
+        assertEquals(0, r.getEvaluations() % 15);
+    }
+
+    @Test
+    void gaussKronrodHandlesReversedAndEmptyIntervals() {
+        Function f = polynomial(0, 0, 1);
+        assertEquals(-9, Quadrature.gaussKronrod(f, 3, 0, 1e-12).getValue(), 1e-12);
+        assertEquals(0, Quadrature.gaussKronrod(f, 1, 1, 1e-12).getValue());
+    }
+
+    @Test
+    void gaussKronrodStaysWithinBudget() {
+        // x^(-1/2) has an integrable singularity at 0 that no tolerance this small can resolve
+        Function f = new Function(new Power(1, -0.5));
+        QuadratureResult r = Quadrature.gaussKronrod(f, 0, 1, 1e-15, 1000);
+        assertTrue(r.getEvaluations() <= 1000, r.toString());
+        assertTrue(r.getErrorEstimate() > 1e-15, r.toString());
+        assertTrue(Math.abs(r.getValue() - 2) <= r.getErrorEstimate(), r.toString());
+        QuadratureResult full = Quadrature.gaussKronrod(f, 0, 1, 1e-10);
+        assertTrue(full.getEvaluations() <= Quadrature.MAX_EVALUATIONS, full.toString());
+        assertTrue(Math.abs(full.getValue() - 2) <= full.getErrorEstimate(), full.toString());
+        assertEquals(2, full.getValue(), 1e-6);
+    }
+
+    @Test
+    void integratesInterpolatingPolynomials() {
+        NewtonPolynomial p = new NewtonPolynomial(new double[][] {{0, 1, 2, 3}, {1, 2, 5, 10}});   // x^2 + 1
+        p.computeCoefficients();
+        assertEquals(9 + 3, Quadrature.gaussKronrod(p, 0, 3, 1e-12).getValue(), 1e-12);
+        assertEquals(9 + 3, Quadrature.simpson(p, 0, 3, 4).getValue(), 1e-12);
+        assertEquals(9 + 3, Quadrature.simpson(p, 0, 3, 1e-12, 64).getValue(), 1e-12);
+        assertEquals(9 + 3, Quadrature.gaussLegendre(p, 0, 3, 2, 1).getValue(), 1e-12);
+    }
+}